@@ -0,0 +1,36 @@
+package com.publicvision.config;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies this backend instance among the nodes sharing the database.
+ * Uses app.cluster.node-id when set, otherwise the host name plus a random
+ * suffix so two instances on one host stay distinct.
+ */
+@Component
+public class NodeIdentity {
+
+    private final String nodeId;
+
+    public NodeIdentity(@Value("${app.cluster.node-id:}") String configuredNodeId) {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            this.nodeId = configuredNodeId.trim();
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            this.nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
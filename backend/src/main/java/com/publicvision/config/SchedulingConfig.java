@@ -0,0 +1,21 @@
+package com.publicvision.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Declares the scheduler used by {@code @Scheduled} jobs explicitly. The
+ * WebSocket broker registers its own TaskScheduler bean, which would
+ * otherwise make Spring Boot skip its default one and leave the jobs on
+ * the broker's pool.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
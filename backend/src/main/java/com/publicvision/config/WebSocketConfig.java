@@ -0,0 +1,96 @@
+package com.publicvision.config;
+
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import com.publicvision.security.JwtHandshakeInterceptor;
+import com.publicvision.security.StompSubscriptionInterceptor;
+
+/**
+ * STOMP over WebSocket at {@code /ws}, backed by the in-process simple broker.
+ *
+ * Destinations:
+ * - /topic/complaints               new complaints (all authenticated users)
+ * - /topic/role/{ROLE}/complaints   complaint created/status changed events for a role
+ * - /user/queue/complaints          status changes of the user's own complaints
+ * - /user/queue/notifications       the user's notifications
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Autowired
+    private JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Autowired
+    private StompSubscriptionInterceptor stompSubscriptionInterceptor;
+
+    @Value("${app.websocket.allowed-origins:http://localhost:3000,http://localhost:5173,http://127.0.0.1:5500,http://localhost:5500}")
+    private String[] allowedOrigins;
+
+    @Value("${app.websocket.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${app.websocket.outbound-threads:8}")
+    private int outboundThreads;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws")
+                .setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setHandshakeHandler(new DefaultHandshakeHandler() {
+                    @Override
+                    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                            Map<String, Object> attributes) {
+                        return (Principal) attributes.get(JwtHandshakeInterceptor.AUTHENTICATION_ATTRIBUTE);
+                    }
+                });
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        heartbeatScheduler.initialize();
+
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(heartbeatScheduler);
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompSubscriptionInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Bound what a slow socket can hold back; the session is closed past these limits
+        registration.setSendTimeLimit(10 * 1000)
+                .setSendBufferSizeLimit(512 * 1024)
+                .setMessageSizeLimit(64 * 1024);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -14,8 +15,11 @@ import com.publicvision.dto.JwtResponse;
 import com.publicvision.dto.LoginRequest;
 import com.publicvision.dto.RegisterRequest;
 import com.publicvision.dto.UserDTO;
+import com.publicvision.dto.auth.TokenRefreshRequest;
+import com.publicvision.security.LoginRateLimiter;
 import com.publicvision.service.AuthService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -27,14 +31,39 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<JwtResponse> login(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        loginRateLimiter.acquire(request.getRemoteAddr(), loginRequest.getEmail());
         JwtResponse jwtResponse = authService.login(loginRequest);
         return ResponseEntity.ok(jwtResponse);
     }
 
+    @PostMapping("/refresh-token")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody TokenRefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    /**
+     * Revokes the caller's access token and the refresh token in the body
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) TokenRefreshRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register")
-    public ResponseEntity<UserDTO> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<UserDTO> register(@Valid @RequestBody RegisterRequest registerRequest,
+            HttpServletRequest request) {
+        loginRateLimiter.acquire(request.getRemoteAddr(), null);
         log.info("Register attempt email={} name={} phone={} ", registerRequest.getEmail(), registerRequest.getName(), registerRequest.getPhone());
         UserDTO userDTO = authService.register(registerRequest);
         log.info("Register success userId={} email={}", userDTO.getUserId(), userDTO.getEmail());
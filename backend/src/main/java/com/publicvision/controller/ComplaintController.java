@@ -2,6 +2,9 @@ package com.publicvision.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -9,26 +12,37 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.publicvision.dto.CommentRequest;
 import com.publicvision.dto.ComplaintDTO;
 import com.publicvision.dto.ComplaintRequest;
+import com.publicvision.dto.CursorPageDTO;
 import com.publicvision.dto.FeedbackRequest;
 import com.publicvision.dto.ReopenRequest;
+import com.publicvision.dto.ResolutionStatsDTO;
 import com.publicvision.dto.StatisticsDTO;
 import com.publicvision.dto.UpdateStatusRequest;
 import com.publicvision.entity.ComplaintUpdate;
 import com.publicvision.entity.ComplaintImage;
 import com.publicvision.repository.ComplaintImageRepository;
 import com.publicvision.service.ComplaintService;
+import com.publicvision.service.IdempotencyService;
+import com.publicvision.service.RecentComplaintsCache;
+import com.publicvision.util.SecurityUtils;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/complaints")
@@ -40,12 +54,50 @@ public class ComplaintController {
     @Autowired
     private ComplaintImageRepository complaintImageRepository;
 
+    @Autowired
+    private RecentComplaintsCache recentComplaintsCache;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    /**
+     * Accepts a complaint and returns 202 with its id; images, geocoding,
+     * duplicate check and notifications follow in the background. With an
+     * Idempotency-Key header, retries of the same submission return the
+     * original complaint instead of a new one.
+     */
     @PostMapping(value = "/create", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<ComplaintDTO> createComplaint(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestPart("complaint") @Valid ComplaintRequest complaintRequest,
             @RequestPart(value = "images", required = false) List<MultipartFile> images) {
-        ComplaintDTO complaint = complaintService.createComplaint(complaintRequest, images);
-        return ResponseEntity.ok(complaint);
+        if (idempotencyKey == null) {
+            return ResponseEntity.accepted().body(complaintService.createComplaint(complaintRequest, images));
+        }
+
+        IdempotencyService.Result<ComplaintDTO> result = idempotencyService.execute(
+                SecurityUtils.getCurrentUser().getUserId(), idempotencyKey,
+                fingerprint(complaintRequest, images), ComplaintDTO.class,
+                () -> complaintService.createComplaint(complaintRequest, images));
+        return ResponseEntity.accepted()
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getValue());
+    }
+
+    // Images are hashed by content, so a retry with different files under the same name is not a replay
+    private static String fingerprint(ComplaintRequest request, List<MultipartFile> images) {
+        StringBuilder files = new StringBuilder();
+        if (images != null) {
+            for (MultipartFile image : images) {
+                try (InputStream content = image.getInputStream()) {
+                    files.append(IdempotencyService.contentHash(content)).append(';');
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not read image " + image.getOriginalFilename());
+                }
+            }
+        }
+        return IdempotencyService.fingerprint(request.getTitle(), request.getDescription(), request.getCategory(),
+                request.getLocationLat(), request.getLocationLng(), request.getAddress(), files);
     }
 
     @PostMapping("/{id}/status")
@@ -67,6 +119,52 @@ public class ComplaintController {
         return ResponseEntity.ok(complaints);
     }
 
+    /**
+     * Complaints without a total count; hasNext is derived from one extra row
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<ComplaintDTO>> getAllComplaintsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        return ResponseEntity.ok(complaintService.getAllComplaintsSlice(page, size, sortBy, direction));
+    }
+
+    @GetMapping("/my/slice")
+    public ResponseEntity<Slice<ComplaintDTO>> getMyComplaintsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getComplaintsByUserSlice(page, size));
+    }
+
+    /**
+     * Approximate complaint total for slice listings that want to show one
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Long> getApproximateCount(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(complaintService.getApproximateComplaintCount(status, category));
+    }
+
+    /**
+     * Cursor-paginated complaints, newest first, without a total count
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<ComplaintDTO>> getAllComplaintsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getAllComplaintsByCursor(cursor, size));
+    }
+
+    @GetMapping("/my/cursor")
+    public ResponseEntity<CursorPageDTO<ComplaintDTO>> getMyComplaintsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getComplaintsByUserByCursor(cursor, size));
+    }
+
     @GetMapping("/my")
     public ResponseEntity<Page<ComplaintDTO>> getMyComplaints(
             @RequestParam(defaultValue = "0") int page,
@@ -113,6 +211,14 @@ public class ComplaintController {
         return ResponseEntity.ok(complaints);
     }
 
+    @GetMapping("/category/{category}/slice")
+    public ResponseEntity<Slice<ComplaintDTO>> getComplaintsByCategorySlice(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getComplaintsByCategorySlice(category, page, size));
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<Page<ComplaintDTO>> getComplaintsByStatus(
             @PathVariable String status,
@@ -122,6 +228,22 @@ public class ComplaintController {
         return ResponseEntity.ok(complaints);
     }
 
+    @GetMapping("/status/{status}/slice")
+    public ResponseEntity<Slice<ComplaintDTO>> getComplaintsByStatusSlice(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getComplaintsByStatusSlice(status, page, size));
+    }
+
+    @GetMapping("/status/{status}/cursor")
+    public ResponseEntity<CursorPageDTO<ComplaintDTO>> getComplaintsByStatusByCursor(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(complaintService.getComplaintsByStatusByCursor(status, cursor, size));
+    }
+
     @GetMapping("/statistics")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<StatisticsDTO> getStatistics() {
@@ -129,12 +251,42 @@ public class ComplaintController {
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping(value = "/statistics/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public SseEmitter streamStatistics() {
+        return complaintService.streamStatistics();
+    }
+
+    @GetMapping("/statistics/resolution-times")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ResolutionStatsDTO> getResolutionStatistics() {
+        ResolutionStatsDTO statistics = complaintService.getResolutionStatistics();
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Public recent feed, served from pre-serialized bytes with ETag support
+     */
     @GetMapping("/public/recent")
-    public ResponseEntity<Page<ComplaintDTO>> getRecentComplaints(
+    public ResponseEntity<byte[]> getRecentComplaints(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<ComplaintDTO> complaints = complaintService.getAllComplaints(page, size, "createdAt", "desc");
-        return ResponseEntity.ok(complaints);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        RecentComplaintsCache.Feed feed = recentComplaintsCache.get(page, size);
+        if (webRequest.checkNotModified(feed.getEtag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(feed.getEtag())
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS).cachePublic())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (feed.getGzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(feed.getGzipped());
+        }
+        return response.body(feed.getJson());
     }
 
     @PostMapping("/{id}/comments")
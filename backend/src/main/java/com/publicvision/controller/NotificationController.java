@@ -1,23 +1,29 @@
 package com.publicvision.controller;
 
+import java.time.LocalDateTime;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.publicvision.dto.CursorPageDTO;
+import com.publicvision.dto.MarkNotificationsReadRequest;
 import com.publicvision.dto.NotificationDTO;
-import com.publicvision.entity.User;
-import com.publicvision.repository.UserRepository;
 import com.publicvision.service.NotificationService;
+import com.publicvision.util.SecurityUtils;
+
+import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -26,9 +32,6 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @GetMapping
     public ResponseEntity<Page<NotificationDTO>> getUserNotifications(
             @RequestParam(defaultValue = "0") int page,
@@ -37,6 +40,16 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    /**
+     * Cursor-paginated notifications, newest first, without a total count
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getUserNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(notificationService.getUserNotificationsByCursor(cursor, size));
+    }
+
     @GetMapping("/count")
     public ResponseEntity<Long> getUnreadNotificationCount() {
         Long count = notificationService.getUnreadNotificationCount();
@@ -56,16 +69,32 @@ public class NotificationController {
     }
 
     /**
-     * Create SSE connection for real-time notifications
+     * Mark a list of notifications as read
      */
-    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamNotifications() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
+    @PostMapping("/read-bulk")
+    public ResponseEntity<Integer> markAsRead(@Valid @RequestBody MarkNotificationsReadRequest request) {
+        return ResponseEntity.ok(notificationService.markAsRead(request.getIds()));
+    }
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Mark every notification sent at or before the given time as read
+     */
+    @PostMapping("/read-before")
+    public ResponseEntity<Integer> markAsReadBefore(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        return ResponseEntity.ok(notificationService.markAsReadBefore(before));
+    }
 
-        return notificationService.createSseEmitter(user.getUserId());
+    /**
+     * Create SSE connection for real-time notifications. A reconnecting client
+     * gets the notifications after Last-Event-ID replayed first; the
+     * lastEventId query parameter serves clients that reconnect manually.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return notificationService.createSseEmitter(SecurityUtils.getCurrentUser(), lastEventId);
     }
 }
@@ -31,6 +31,37 @@ public class ComplaintDTO {
     public ComplaintDTO() {
     }
 
+    /**
+     * Projection constructor used by the repository listing queries
+     */
+    public ComplaintDTO(Long complaintId, Long userId, String userFullName, String title, String description,
+            String category, String photoPath, Double locationLat, Double locationLng, String address,
+            Complaint.ComplaintStatus status, Long assignedToId, String assignedToName, LocalDateTime createdAt,
+            LocalDateTime updatedAt, Boolean isDuplicate, Long originalComplaintId, Integer rating,
+            String feedback, Boolean reopened, String reopenReason) {
+        this.complaintId = complaintId;
+        this.userId = userId;
+        this.userFullName = userFullName;
+        this.title = title;
+        this.description = description;
+        this.category = category;
+        this.photoPath = photoPath;
+        this.locationLat = locationLat;
+        this.locationLng = locationLng;
+        this.address = address;
+        this.status = status;
+        this.assignedToId = assignedToId;
+        this.assignedToName = assignedToName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.isDuplicate = isDuplicate;
+        this.originalComplaintId = originalComplaintId;
+        this.rating = rating;
+        this.feedback = feedback;
+        this.reopened = reopened;
+        this.reopenReason = reopenReason;
+    }
+
     public static ComplaintDTO from(Complaint complaint) {
         ComplaintDTO dto = new ComplaintDTO();
         dto.setComplaintId(complaint.getComplaintId());
@@ -0,0 +1,55 @@
+package com.publicvision.dto;
+
+import java.time.LocalDateTime;
+
+public class ComplaintEventDTO {
+
+    public static final String CREATED = "COMPLAINT_CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    private String type;
+    private String oldStatus;
+    private ComplaintDTO complaint;
+    private LocalDateTime timestamp = LocalDateTime.now();
+
+    public ComplaintEventDTO() {
+    }
+
+    public ComplaintEventDTO(String type, String oldStatus, ComplaintDTO complaint) {
+        this.type = type;
+        this.oldStatus = oldStatus;
+        this.complaint = complaint;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getOldStatus() {
+        return oldStatus;
+    }
+
+    public void setOldStatus(String oldStatus) {
+        this.oldStatus = oldStatus;
+    }
+
+    public ComplaintDTO getComplaint() {
+        return complaint;
+    }
+
+    public void setComplaint(ComplaintDTO complaint) {
+        this.complaint = complaint;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
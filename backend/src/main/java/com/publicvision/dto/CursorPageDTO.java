@@ -0,0 +1,91 @@
+package com.publicvision.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.publicvision.util.PageCursor;
+
+/**
+ * One page of a cursor-paginated listing. There is no total count; pass
+ * nextCursor back to get the following page while hasNext is true.
+ */
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+
+    public CursorPageDTO() {
+    }
+
+    public CursorPageDTO(List<T> content, String nextCursor, boolean hasNext, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+        this.size = size;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of size + 1; the extra
+     * row only signals that another page exists
+     *
+     * @param rows Rows in (timestamp desc, id desc) order, at most size + 1
+     * @param size Requested page size
+     * @param timestamp Timestamp the listing is ordered by
+     * @param id Id used as tie-breaker
+     * @param mapper Row to DTO mapping
+     * @return The page
+     */
+    public static <E, T> CursorPageDTO<T> fromRows(List<E> rows, int size, Function<E, LocalDateTime> timestamp,
+            Function<E, Long> id, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        List<T> content = new ArrayList<>(pageRows.size());
+        for (E row : pageRows) {
+            content.add(mapper.apply(row));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new PageCursor(timestamp.apply(last), id.apply(last)).encode();
+        }
+        return new CursorPageDTO<>(content, nextCursor, hasNext, content.size());
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
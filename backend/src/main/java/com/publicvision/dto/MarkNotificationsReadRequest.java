@@ -0,0 +1,28 @@
+package com.publicvision.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public class MarkNotificationsReadRequest {
+
+    @NotEmpty(message = "Notification ids are required")
+    @Size(max = 1000, message = "At most 1000 notifications can be marked at once")
+    private List<Long> ids;
+
+    public MarkNotificationsReadRequest() {
+    }
+
+    public MarkNotificationsReadRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -1,6 +1,8 @@
 package com.publicvision.dto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.publicvision.entity.Notification;
 
@@ -15,6 +17,10 @@ public class NotificationDTO {
     private Boolean isRead;
     private String type;
 
+    // Digest notifications only
+    private Integer digestCount;
+    private List<Long> digestComplaintIds;
+
     public NotificationDTO() {
     }
 
@@ -93,6 +99,22 @@ public class NotificationDTO {
         this.type = type;
     }
 
+    public Integer getDigestCount() {
+        return digestCount;
+    }
+
+    public void setDigestCount(Integer digestCount) {
+        this.digestCount = digestCount;
+    }
+
+    public List<Long> getDigestComplaintIds() {
+        return digestComplaintIds;
+    }
+
+    public void setDigestComplaintIds(List<Long> digestComplaintIds) {
+        this.digestComplaintIds = digestComplaintIds;
+    }
+
     public static NotificationDTO fromNotification(Notification notification) {
         NotificationDTO dto = new NotificationDTO();
         dto.setId(notification.getNotificationId());
@@ -108,6 +130,17 @@ public class NotificationDTO {
         dto.setIsRead(notification.getIsRead());
         dto.setType(notification.getType().name());
 
+        if (notification.getDigestCount() != null) {
+            dto.setDigestCount(notification.getDigestCount());
+            List<Long> complaintIds = new ArrayList<>();
+            if (notification.getDigestComplaintIds() != null && !notification.getDigestComplaintIds().isEmpty()) {
+                for (String id : notification.getDigestComplaintIds().split(",")) {
+                    complaintIds.add(Long.valueOf(id));
+                }
+            }
+            dto.setDigestComplaintIds(complaintIds);
+        }
+
         return dto;
     }
 }
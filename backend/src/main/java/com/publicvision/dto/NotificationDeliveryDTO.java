@@ -0,0 +1,45 @@
+package com.publicvision.dto;
+
+/**
+ * A notification addressed to its recipient, as sent to every backend
+ * instance for SSE and STOMP delivery
+ */
+public class NotificationDeliveryDTO {
+
+    private Long userId;
+    private String email;
+    private NotificationDTO notification;
+
+    public NotificationDeliveryDTO() {
+    }
+
+    public NotificationDeliveryDTO(Long userId, String email, NotificationDTO notification) {
+        this.userId = userId;
+        this.email = email;
+        this.notification = notification;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public NotificationDTO getNotification() {
+        return notification;
+    }
+
+    public void setNotification(NotificationDTO notification) {
+        this.notification = notification;
+    }
+}
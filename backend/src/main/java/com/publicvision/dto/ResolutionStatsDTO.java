@@ -0,0 +1,149 @@
+package com.publicvision.dto;
+
+import java.util.Map;
+
+public class ResolutionStatsDTO {
+
+    // Overall distributions (merged from the per-category histograms)
+    private PercentileSummaryDTO resolutionTime;
+    private PercentileSummaryDTO firstResponseTime;
+
+    // Distributions keyed by complaint category
+    private Map<String, PercentileSummaryDTO> resolutionTimeByCategory;
+    private Map<String, PercentileSummaryDTO> firstResponseTimeByCategory;
+
+    // Distributions keyed by staff user id
+    private Map<Long, PercentileSummaryDTO> resolutionTimeByStaff;
+    private Map<Long, PercentileSummaryDTO> firstResponseTimeByStaff;
+
+    public static class PercentileSummaryDTO {
+
+        private String label;
+        private Long count;
+        private Double p50Hours;
+        private Double p90Hours;
+        private Double p99Hours;
+        private Double maxHours;
+        private Double meanHours;
+
+        public PercentileSummaryDTO() {
+        }
+
+        public PercentileSummaryDTO(String label, Long count, Double p50Hours, Double p90Hours, Double p99Hours, Double maxHours, Double meanHours) {
+            this.label = label;
+            this.count = count;
+            this.p50Hours = p50Hours;
+            this.p90Hours = p90Hours;
+            this.p99Hours = p99Hours;
+            this.maxHours = maxHours;
+            this.meanHours = meanHours;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public Long getCount() {
+            return count;
+        }
+
+        public void setCount(Long count) {
+            this.count = count;
+        }
+
+        public Double getP50Hours() {
+            return p50Hours;
+        }
+
+        public void setP50Hours(Double p50Hours) {
+            this.p50Hours = p50Hours;
+        }
+
+        public Double getP90Hours() {
+            return p90Hours;
+        }
+
+        public void setP90Hours(Double p90Hours) {
+            this.p90Hours = p90Hours;
+        }
+
+        public Double getP99Hours() {
+            return p99Hours;
+        }
+
+        public void setP99Hours(Double p99Hours) {
+            this.p99Hours = p99Hours;
+        }
+
+        public Double getMaxHours() {
+            return maxHours;
+        }
+
+        public void setMaxHours(Double maxHours) {
+            this.maxHours = maxHours;
+        }
+
+        public Double getMeanHours() {
+            return meanHours;
+        }
+
+        public void setMeanHours(Double meanHours) {
+            this.meanHours = meanHours;
+        }
+    }
+
+    public ResolutionStatsDTO() {
+    }
+
+    public PercentileSummaryDTO getResolutionTime() {
+        return resolutionTime;
+    }
+
+    public void setResolutionTime(PercentileSummaryDTO resolutionTime) {
+        this.resolutionTime = resolutionTime;
+    }
+
+    public PercentileSummaryDTO getFirstResponseTime() {
+        return firstResponseTime;
+    }
+
+    public void setFirstResponseTime(PercentileSummaryDTO firstResponseTime) {
+        this.firstResponseTime = firstResponseTime;
+    }
+
+    public Map<String, PercentileSummaryDTO> getResolutionTimeByCategory() {
+        return resolutionTimeByCategory;
+    }
+
+    public void setResolutionTimeByCategory(Map<String, PercentileSummaryDTO> resolutionTimeByCategory) {
+        this.resolutionTimeByCategory = resolutionTimeByCategory;
+    }
+
+    public Map<String, PercentileSummaryDTO> getFirstResponseTimeByCategory() {
+        return firstResponseTimeByCategory;
+    }
+
+    public void setFirstResponseTimeByCategory(Map<String, PercentileSummaryDTO> firstResponseTimeByCategory) {
+        this.firstResponseTimeByCategory = firstResponseTimeByCategory;
+    }
+
+    public Map<Long, PercentileSummaryDTO> getResolutionTimeByStaff() {
+        return resolutionTimeByStaff;
+    }
+
+    public void setResolutionTimeByStaff(Map<Long, PercentileSummaryDTO> resolutionTimeByStaff) {
+        this.resolutionTimeByStaff = resolutionTimeByStaff;
+    }
+
+    public Map<Long, PercentileSummaryDTO> getFirstResponseTimeByStaff() {
+        return firstResponseTimeByStaff;
+    }
+
+    public void setFirstResponseTimeByStaff(Map<Long, PercentileSummaryDTO> firstResponseTimeByStaff) {
+        this.firstResponseTimeByStaff = firstResponseTimeByStaff;
+    }
+}
@@ -10,6 +10,7 @@ public class StatisticsDTO {
     private Long pendingComplaints;
     private Long inProgressComplaints;
     private Long resolvedComplaints;
+    private Long escalatedComplaints;
     private Long rejectedComplaints;
 
     // Distribution maps
@@ -105,6 +106,14 @@ public class StatisticsDTO {
         this.resolvedComplaints = resolvedComplaints;
     }
 
+    public Long getEscalatedComplaints() {
+        return escalatedComplaints;
+    }
+
+    public void setEscalatedComplaints(Long escalatedComplaints) {
+        this.escalatedComplaints = escalatedComplaints;
+    }
+
     public Long getRejectedComplaints() {
         return rejectedComplaints;
     }
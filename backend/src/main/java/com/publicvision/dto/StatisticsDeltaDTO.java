@@ -0,0 +1,56 @@
+package com.publicvision.dto;
+
+import java.util.Map;
+
+public class StatisticsDeltaDTO {
+
+    // Increases by one for every delta so clients can detect gaps and resync
+    private Long sequence;
+
+    // Signed changes since the previous delta
+    private Long totalComplaints;
+    private Map<String, Long> complaintsByStatus;
+    private Map<String, Long> complaintsByCategory;
+
+    public StatisticsDeltaDTO() {
+    }
+
+    public StatisticsDeltaDTO(Long sequence, Long totalComplaints, Map<String, Long> complaintsByStatus, Map<String, Long> complaintsByCategory) {
+        this.sequence = sequence;
+        this.totalComplaints = totalComplaints;
+        this.complaintsByStatus = complaintsByStatus;
+        this.complaintsByCategory = complaintsByCategory;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getTotalComplaints() {
+        return totalComplaints;
+    }
+
+    public void setTotalComplaints(Long totalComplaints) {
+        this.totalComplaints = totalComplaints;
+    }
+
+    public Map<String, Long> getComplaintsByStatus() {
+        return complaintsByStatus;
+    }
+
+    public void setComplaintsByStatus(Map<String, Long> complaintsByStatus) {
+        this.complaintsByStatus = complaintsByStatus;
+    }
+
+    public Map<String, Long> getComplaintsByCategory() {
+        return complaintsByCategory;
+    }
+
+    public void setComplaintsByCategory(Map<String, Long> complaintsByCategory) {
+        this.complaintsByCategory = complaintsByCategory;
+    }
+}
@@ -0,0 +1,73 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Event on the JDBC cluster event bus. Rows are short-lived: every node
+ * reads past them with its own cursor and they are swept soon after.
+ */
+@Entity
+@Table(name = "cluster_events", indexes = {
+    // Retention sweep
+    @Index(name = "idx_cluster_events_created", columnList = "created_at")
+})
+public class ClusterEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "origin_node", nullable = false, length = 100)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public void setOriginNode(String originNode) {
+        this.originNode = originNode;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * A backend instance reading the cluster event bus, with its cursor into
+ * cluster_events and the time it last polled
+ */
+@Entity
+@Table(name = "cluster_nodes")
+public class ClusterNode {
+
+    @Id
+    @Column(length = 100)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Long getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(Long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+}
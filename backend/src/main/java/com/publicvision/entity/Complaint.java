@@ -5,7 +5,12 @@ import java.time.LocalDateTime;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints", indexes = {
+    // Keyset pagination of the complaint listings
+    @Index(name = "idx_complaints_created_id", columnList = "created_at, complaint_id"),
+    @Index(name = "idx_complaints_user_created_id", columnList = "user_id, created_at, complaint_id"),
+    @Index(name = "idx_complaints_status_created_id", columnList = "status, created_at, complaint_id")
+})
 public class Complaint {
 
     @Id
@@ -0,0 +1,127 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import com.publicvision.entity.Complaint.ComplaintStatus;
+
+import jakarta.persistence.*;
+
+/**
+ * Complaint domain event, written to the outbox in the transaction that
+ * made the change and delivered to subscribers by
+ * {@link com.publicvision.service.ComplaintEventDispatcher}. Ids grow with
+ * insertion order and serve as consumer offsets.
+ */
+@Entity
+@Table(name = "complaint_events", indexes = {
+    // Retention sweep
+    @Index(name = "idx_complaint_events_created", columnList = "created_at")
+})
+public class ComplaintEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(name = "complaint_id", nullable = false)
+    private Long complaintId;
+
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ComplaintStatus oldStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ComplaintStatus newStatus;
+
+    // MERGED: the complaint it was merged into
+    private Long relatedComplaintId;
+
+    // User who caused the change; null for scheduled jobs
+    private Long actorId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum Type {
+        CREATED, STATUS_CHANGED, MERGED, ESCALATED
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getComplaintId() {
+        return complaintId;
+    }
+
+    public void setComplaintId(Long complaintId) {
+        this.complaintId = complaintId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public ComplaintStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    public void setOldStatus(ComplaintStatus oldStatus) {
+        this.oldStatus = oldStatus;
+    }
+
+    public ComplaintStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public void setNewStatus(ComplaintStatus newStatus) {
+        this.newStatus = newStatus;
+    }
+
+    public Long getRelatedComplaintId() {
+        return relatedComplaintId;
+    }
+
+    public void setRelatedComplaintId(Long relatedComplaintId) {
+        this.relatedComplaintId = relatedComplaintId;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public void setActorId(Long actorId) {
+        this.actorId = actorId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
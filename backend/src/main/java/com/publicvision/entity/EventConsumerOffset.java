@@ -0,0 +1,74 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Delivery position of a shared subscriber. Every event up to lastEventId
+ * has been processed; above it, every event up to deliveredThrough except
+ * the pending ones, which had not committed yet when they were passed. The
+ * row is locked while a batch is delivered, so only one node delivers to a
+ * subscriber at a time.
+ */
+@Entity
+@Table(name = "event_consumer_offsets")
+public class EventConsumerOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    // Null for rows written before pending ids were tracked; same as lastEventId then
+    private Long deliveredThrough;
+
+    // Comma-separated ids in ascending order
+    @Column(columnDefinition = "TEXT")
+    private String pendingIds;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public void setConsumer(String consumer) {
+        this.consumer = consumer;
+    }
+
+    public Long getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(Long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public Long getDeliveredThrough() {
+        return deliveredThrough;
+    }
+
+    public void setDeliveredThrough(Long deliveredThrough) {
+        this.deliveredThrough = deliveredThrough;
+    }
+
+    public String getPendingIds() {
+        return pendingIds;
+    }
+
+    public void setPendingIds(String pendingIds) {
+        this.pendingIds = pendingIds;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
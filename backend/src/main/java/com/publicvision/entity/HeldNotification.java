@@ -0,0 +1,89 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import com.publicvision.entity.Notification.NotificationType;
+
+import jakarta.persistence.*;
+
+/**
+ * Notification held back by the coalescer until its window ends. It is
+ * written in the transaction that created it, so a restart loses nothing.
+ */
+@Entity
+@Table(name = "held_notifications", indexes = {
+    // Held notifications of one recipient and type, in arrival order
+    @Index(name = "idx_held_notifications_user_type", columnList = "user_id, type, id")
+})
+public class HeldNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "complaint_id")
+    private Complaint complaint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationType type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "held_at", nullable = false)
+    private LocalDateTime heldAt = LocalDateTime.now();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Complaint getComplaint() {
+        return complaint;
+    }
+
+    public void setComplaint(Complaint complaint) {
+        this.complaint = complaint;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public void setType(NotificationType type) {
+        this.type = type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getHeldAt() {
+        return heldAt;
+    }
+
+    public void setHeldAt(LocalDateTime heldAt) {
+        this.heldAt = heldAt;
+    }
+}
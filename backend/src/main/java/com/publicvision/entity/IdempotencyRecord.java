@@ -0,0 +1,99 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Result of a request made with an Idempotency-Key, stored with the same
+ * transaction as the request's own writes so a retry finds either both or
+ * neither. Keys are scoped to the user that sent them.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "uk_idempotency_keys_user_key", columnList = "user_id, idempotency_key", unique = true),
+    // Expiry sweeper
+    @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the request content; a reused key with a different request is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Lob
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
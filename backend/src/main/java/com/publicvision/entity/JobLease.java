@@ -0,0 +1,60 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Lease on a scheduled job, so only one node runs it at a time. Written
+ * with conditional updates by {@code JobLeaseService}; times come from the
+ * database clock.
+ */
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(length = 100)
+    private String jobName;
+
+    @Column(nullable = false, length = 100)
+    private String holder;
+
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -5,7 +5,14 @@ import java.time.LocalDateTime;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // Inbox, unread count and mark-read queries
+    @Index(name = "idx_notifications_user_read_sent", columnList = "user_id, is_read, sent_at"),
+    // Keyset pagination of the inbox
+    @Index(name = "idx_notifications_user_sent_id", columnList = "user_id, sent_at, notification_id"),
+    // Retention job: expired read notifications of one type, in index order
+    @Index(name = "idx_notifications_type_read_sent_id", columnList = "type, is_read, sent_at, notification_id")
+})
 public class Notification {
 
     @Id
@@ -33,8 +40,15 @@ public class Notification {
     @Column(nullable = false)
     private NotificationType type = NotificationType.INFO;
 
+    // Set on digest notifications only: number of merged notifications and
+    // comma-separated ids of the complaints they referred to
+    private Integer digestCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String digestComplaintIds;
+
     public enum NotificationType {
-        INFO, STATUS_CHANGE, COMMENT, ASSIGNMENT
+        INFO, STATUS_CHANGE, COMMENT, ASSIGNMENT, ESCALATION
     }
 
     public Long getNotificationId() {
@@ -85,6 +99,22 @@ public class Notification {
         this.isRead = isRead;
     }
 
+    public Integer getDigestCount() {
+        return digestCount;
+    }
+
+    public void setDigestCount(Integer digestCount) {
+        this.digestCount = digestCount;
+    }
+
+    public String getDigestComplaintIds() {
+        return digestComplaintIds;
+    }
+
+    public void setDigestComplaintIds(String digestComplaintIds) {
+        this.digestComplaintIds = digestComplaintIds;
+    }
+
     public NotificationType getType() {
         return type;
     }
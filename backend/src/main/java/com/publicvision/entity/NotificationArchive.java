@@ -0,0 +1,126 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Read notifications moved out of the live table by the retention job. Rows
+ * keep their original id; user and complaint are plain ids so archived rows
+ * never hold up deleting users or complaints.
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+    @Index(name = "idx_notifications_archive_user_sent", columnList = "user_id, sent_at")
+})
+public class NotificationArchive {
+
+    @Id
+    private Long notificationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "complaint_id")
+    private Long complaintId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+
+    @Column(nullable = false)
+    private Boolean isRead;
+
+    @Column(nullable = false)
+    private String type;
+
+    private Integer digestCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String digestComplaintIds;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(Long notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getComplaintId() {
+        return complaintId;
+    }
+
+    public void setComplaintId(Long complaintId) {
+        this.complaintId = complaintId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public Boolean getIsRead() {
+        return isRead;
+    }
+
+    public void setIsRead(Boolean isRead) {
+        this.isRead = isRead;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getDigestCount() {
+        return digestCount;
+    }
+
+    public void setDigestCount(Integer digestCount) {
+        this.digestCount = digestCount;
+    }
+
+    public String getDigestComplaintIds() {
+        return digestComplaintIds;
+    }
+
+    public void setDigestComplaintIds(String digestComplaintIds) {
+        this.digestComplaintIds = digestComplaintIds;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.publicvision.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-user "not before" time: every access token of the user issued before
+ * it is rejected, e.g. after a password change. Once every such token has
+ * expired the row is swept.
+ */
+@Entity
+@Table(name = "user_token_epochs", indexes = {
+    @Index(name = "idx_user_token_epochs_expires", columnList = "expires_at")
+})
+public class UserTokenEpoch {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime notBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(LocalDateTime notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
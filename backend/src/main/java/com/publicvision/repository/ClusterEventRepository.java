@@ -0,0 +1,21 @@
+package com.publicvision.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.ClusterEvent;
+
+@Repository
+public interface ClusterEventRepository extends JpaRepository<ClusterEvent, Long> {
+
+    @Query("SELECT e FROM ClusterEvent e WHERE e.id > :afterId ORDER BY e.id")
+    List<ClusterEvent> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM ClusterEvent e")
+    long findMaxId();
+}
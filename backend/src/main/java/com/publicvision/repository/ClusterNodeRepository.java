@@ -0,0 +1,18 @@
+package com.publicvision.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.ClusterNode;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    // Lowest cursor of the nodes still polling; events up to it are read everywhere
+    @Query("SELECT MIN(n.lastEventId) FROM ClusterNode n WHERE n.lastSeenAt > :since")
+    Long findMinLastEventIdSeenSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,24 @@
+package com.publicvision.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.ComplaintEvent;
+
+@Repository
+public interface ComplaintEventRepository extends JpaRepository<ComplaintEvent, Long> {
+
+    @Query("SELECT e FROM ComplaintEvent e WHERE e.id > :afterId ORDER BY e.id")
+    List<ComplaintEvent> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM ComplaintEvent e")
+    long findMaxId();
+
+    @Query("SELECT e.id FROM ComplaintEvent e WHERE e.id > :afterId")
+    List<Long> findIdsAfter(@Param("afterId") long afterId);
+}
@@ -0,0 +1,35 @@
+package com.publicvision.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.ComplaintPipelineTask;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ComplaintPipelineTaskRepository extends JpaRepository<ComplaintPipelineTask, Long> {
+
+    @Query("SELECT t.id FROM ComplaintPipelineTask t WHERE t.status = 'PENDING' AND t.availableAt <= :now "
+            + "ORDER BY t.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // SKIP LOCKED: a task being processed by another worker or node is not returned
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM ComplaintPipelineTask t WHERE t.id = :id AND t.status = 'PENDING'")
+    Optional<ComplaintPipelineTask> lockPending(@Param("id") Long id);
+
+    @Query("SELECT COUNT(t) FROM ComplaintPipelineTask t WHERE t.status = 'PENDING'")
+    long countPending();
+}
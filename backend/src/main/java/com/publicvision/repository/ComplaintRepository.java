@@ -2,14 +2,18 @@ package com.publicvision.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.publicvision.dto.ComplaintDTO;
 import com.publicvision.entity.Complaint;
 import com.publicvision.entity.Complaint.ComplaintStatus;
 import com.publicvision.entity.User;
@@ -25,6 +29,87 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
 
     Page<Complaint> findByCategory(String category, Pageable pageable);
 
+    // Listings select ComplaintDTO rows directly, joining the owner, assignee
+    // and original complaint so no lazy association is loaded per row
+    String COMPLAINT_DTO_SELECT = "SELECT new com.publicvision.dto.ComplaintDTO("
+            + "c.complaintId, u.userId, u.name, c.title, c.description, c.category, c.photoPath, "
+            + "c.locationLat, c.locationLng, c.address, c.status, a.userId, a.name, c.createdAt, "
+            + "c.updatedAt, c.isDuplicate, o.complaintId, c.rating, c.feedback, c.reopened, c.reopenReason) "
+            + "FROM Complaint c JOIN c.user u LEFT JOIN c.assignedTo a LEFT JOIN c.originalComplaint o ";
+
+    /**
+     * Loads a complaint together with the associations its detail view shows
+     */
+    @EntityGraph(attributePaths = {"user", "assignedTo", "originalComplaint"})
+    Optional<Complaint> findWithAssociationsByComplaintId(Long complaintId);
+
+    @Query(value = COMPLAINT_DTO_SELECT,
+            countQuery = "SELECT COUNT(c) FROM Complaint c")
+    Page<ComplaintDTO> findAllAsDTO(Pageable pageable);
+
+    @Query(value = COMPLAINT_DTO_SELECT + "WHERE c.user = :user",
+            countQuery = "SELECT COUNT(c) FROM Complaint c WHERE c.user = :user")
+    Page<ComplaintDTO> findByUserAsDTO(@Param("user") User user, Pageable pageable);
+
+    @Query(value = COMPLAINT_DTO_SELECT + "WHERE c.status = :status",
+            countQuery = "SELECT COUNT(c) FROM Complaint c WHERE c.status = :status")
+    Page<ComplaintDTO> findByStatusAsDTO(@Param("status") ComplaintStatus status, Pageable pageable);
+
+    @Query(value = COMPLAINT_DTO_SELECT + "WHERE c.category = :category",
+            countQuery = "SELECT COUNT(c) FROM Complaint c WHERE c.category = :category")
+    Page<ComplaintDTO> findByCategoryAsDTO(@Param("category") String category, Pageable pageable);
+
+    @Query(value = COMPLAINT_DTO_SELECT + "WHERE c.rating BETWEEN :minRating AND :maxRating AND c.status = :status",
+            countQuery = "SELECT COUNT(c) FROM Complaint c "
+            + "WHERE c.rating BETWEEN :minRating AND :maxRating AND c.status = :status")
+    Page<ComplaintDTO> findByRatingBetweenAndStatusAsDTO(
+            @Param("minRating") Integer minRating,
+            @Param("maxRating") Integer maxRating,
+            @Param("status") ComplaintStatus status,
+            Pageable pageable);
+
+    // Slice variants fetch size + 1 rows to compute hasNext and run no COUNT query
+
+    @Query(COMPLAINT_DTO_SELECT)
+    Slice<ComplaintDTO> findSliceAsDTO(Pageable pageable);
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.user = :user")
+    Slice<ComplaintDTO> findSliceByUserAsDTO(@Param("user") User user, Pageable pageable);
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.status = :status")
+    Slice<ComplaintDTO> findSliceByStatusAsDTO(@Param("status") ComplaintStatus status, Pageable pageable);
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.category = :category")
+    Slice<ComplaintDTO> findSliceByCategoryAsDTO(@Param("category") String category, Pageable pageable);
+
+    // Keyset pagination: rows strictly after the cursor in (createdAt desc, complaintId desc) order
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.createdAt < :createdAt "
+            + "OR (c.createdAt = :createdAt AND c.complaintId < :id) "
+            + "ORDER BY c.createdAt DESC, c.complaintId DESC")
+    List<ComplaintDTO> findPageAfterCursor(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.user = :user AND (c.createdAt < :createdAt "
+            + "OR (c.createdAt = :createdAt AND c.complaintId < :id)) "
+            + "ORDER BY c.createdAt DESC, c.complaintId DESC")
+    List<ComplaintDTO> findPageByUserAfterCursor(
+            @Param("user") User user,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(COMPLAINT_DTO_SELECT + "WHERE c.status = :status AND (c.createdAt < :createdAt "
+            + "OR (c.createdAt = :createdAt AND c.complaintId < :id)) "
+            + "ORDER BY c.createdAt DESC, c.complaintId DESC")
+    List<ComplaintDTO> findPageByStatusAfterCursor(
+            @Param("status") ComplaintStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     @Query("SELECT c FROM Complaint c WHERE c.category = :category AND c.createdAt BETWEEN :startDate AND :endDate")
     Page<Complaint> findByCategoryBetweenDates(
             @Param("category") String category,
@@ -92,6 +177,16 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
     @Query("SELECT c FROM Complaint c WHERE c.status <> 'RESOLVED' AND c.escalated = false AND c.dueDate < :currentTime")
     List<Complaint> findOverdueComplaints(@Param("currentTime") LocalDateTime currentTime);
 
+    // Overdue complaints within an id range, for sharded escalation runs; the graph covers ComplaintDTO.from
+    @EntityGraph(attributePaths = {"user", "assignedTo", "originalComplaint"})
+    @Query("SELECT c FROM Complaint c WHERE c.status <> 'RESOLVED' AND c.escalated = false AND c.dueDate < :currentTime "
+            + "AND c.complaintId BETWEEN :fromId AND :toId")
+    List<Complaint> findOverdueComplaintsInRange(@Param("currentTime") LocalDateTime currentTime,
+            @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT COALESCE(MAX(c.complaintId), 0) FROM Complaint c")
+    long findMaxComplaintId();
+
     Page<Complaint> findByEscalatedTrue(Pageable pageable);
 
     Page<Complaint> findByRatingBetweenAndStatusOrderByCreatedAtDesc(Integer minRating, Integer maxRating, ComplaintStatus status, Pageable pageable);
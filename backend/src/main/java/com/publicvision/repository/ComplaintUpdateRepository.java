@@ -1,10 +1,13 @@
 package com.publicvision.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.publicvision.entity.Complaint;
@@ -16,4 +19,29 @@ public interface ComplaintUpdateRepository extends JpaRepository<ComplaintUpdate
     List<ComplaintUpdate> findByComplaintComplaintIdOrderByCreatedAtDesc(Long complaintId);
 
     Page<ComplaintUpdate> findByComplaintComplaintId(Long complaintId, Pageable pageable);
+
+    /**
+     * First time each complaint reached the given status. Rows are
+     * [category, assigneeId, assigneeName, complaintCreatedAt, firstReachedAt].
+     */
+    @Query("SELECT c.category, a.userId, a.name, c.createdAt, MIN(u.createdAt) "
+            + "FROM ComplaintUpdate u JOIN u.complaint c LEFT JOIN c.assignedTo a "
+            + "WHERE u.status = :status "
+            + "GROUP BY c.complaintId, c.category, a.userId, a.name, c.createdAt")
+    List<Object[]> findFirstTransitionsTo(@Param("status") Complaint.ComplaintStatus status);
+
+    /**
+     * First time each complaint reached a status outside the given ones. Rows
+     * have the same layout as {@link #findFirstTransitionsTo}.
+     */
+    @Query("SELECT c.category, a.userId, a.name, c.createdAt, MIN(u.createdAt) "
+            + "FROM ComplaintUpdate u JOIN u.complaint c LEFT JOIN c.assignedTo a "
+            + "WHERE u.status NOT IN :statuses "
+            + "GROUP BY c.complaintId, c.category, a.userId, a.name, c.createdAt")
+    List<Object[]> findFirstTransitionsToNoneOf(@Param("statuses") Collection<Complaint.ComplaintStatus> statuses);
+
+    boolean existsByComplaintComplaintIdAndStatus(Long complaintId, Complaint.ComplaintStatus status);
+
+    boolean existsByComplaintComplaintIdAndStatusNotIn(Long complaintId,
+            Collection<Complaint.ComplaintStatus> statuses);
 }
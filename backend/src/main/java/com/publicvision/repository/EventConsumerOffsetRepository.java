@@ -0,0 +1,28 @@
+package com.publicvision.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.EventConsumerOffset;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface EventConsumerOffsetRepository extends JpaRepository<EventConsumerOffset, String> {
+
+    // SKIP LOCKED: empty while another node is delivering to this consumer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM EventConsumerOffset o WHERE o.consumer = :consumer")
+    Optional<EventConsumerOffset> lockByConsumer(@Param("consumer") String consumer);
+
+    @Query("SELECT MIN(o.lastEventId) FROM EventConsumerOffset o")
+    Long findMinLastEventId();
+}
@@ -0,0 +1,38 @@
+package com.publicvision.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.HeldNotification;
+import com.publicvision.entity.Notification.NotificationType;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface HeldNotificationRepository extends JpaRepository<HeldNotification, Long> {
+
+    @Query("SELECT DISTINCT h.user.userId FROM HeldNotification h "
+            + "WHERE h.type = :type AND h.user.userId IN :userIds")
+    List<Long> findHoldingUserIds(@Param("type") NotificationType type, @Param("userIds") Collection<Long> userIds);
+
+    // Recipient and type pairs whose oldest held notification is at or before the cut-off
+    @Query("SELECT h.user.userId, h.type FROM HeldNotification h GROUP BY h.user.userId, h.type "
+            + "HAVING MIN(h.heldAt) <= :cutoff")
+    List<Object[]> findDueKeys(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // SKIP LOCKED: rows being released by another node are not returned
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT h FROM HeldNotification h WHERE h.user.userId = :userId AND h.type = :type ORDER BY h.id")
+    List<HeldNotification> lockByKey(@Param("userId") Long userId, @Param("type") NotificationType type);
+}
@@ -1,27 +1,73 @@
 package com.publicvision.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.publicvision.entity.Notification;
 import com.publicvision.entity.User;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     Page<Notification> findByUser(User user, Pageable pageable);
 
+    // Keyset pagination: rows strictly after the cursor in (sentAt desc, notificationId desc) order
+    @Query("SELECT n FROM Notification n WHERE n.user = :user AND (n.sentAt < :sentAt "
+            + "OR (n.sentAt = :sentAt AND n.notificationId < :id)) "
+            + "ORDER BY n.sentAt DESC, n.notificationId DESC")
+    List<Notification> findPageByUserAfterCursor(
+            @Param("user") User user,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     List<Notification> findByUserOrderBySentAtDesc(User user);
 
     List<Notification> findByUserAndIsReadFalse(User user);
 
     Long countByUserAndIsReadFalse(User user);
 
+    long countByUserUserIdAndIsReadFalse(Long userId);
+
+    // Recipients that got a notification of the type after the given time
+    @Query("SELECT DISTINCT n.user.userId FROM Notification n "
+            + "WHERE n.type = :type AND n.user.userId IN :userIds AND n.sentAt > :since")
+    List<Long> findRecipientIdsSince(
+            @Param("type") Notification.NotificationType type,
+            @Param("userIds") Collection<Long> userIds,
+            @Param("since") LocalDateTime since);
+
     List<Notification> findByUserUserIdOrderBySentAtDesc(Long userId);
 
     List<Notification> findByComplaintComplaintId(Long complaintId);
+
+    // Notifications after the last seen id, plus those sent shortly before it:
+    // ids are assigned at insert, so a lower id can commit after a higher one
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId "
+            + "AND (n.notificationId > :lastId OR n.sentAt >= :since) ORDER BY n.notificationId ASC")
+    List<Notification> findForReplay(@Param("userId") Long userId, @Param("lastId") Long lastId,
+            @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.userId = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true "
+            + "WHERE n.user.userId = :userId AND n.isRead = false AND n.notificationId IN :ids")
+    int markAsReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true "
+            + "WHERE n.user.userId = :userId AND n.isRead = false AND n.sentAt <= :before")
+    int markAsReadBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
 }
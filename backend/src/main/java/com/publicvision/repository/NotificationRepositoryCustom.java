@@ -0,0 +1,17 @@
+package com.publicvision.repository;
+
+import java.util.List;
+
+import com.publicvision.entity.Notification;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Inserts new notifications with JDBC batch statements instead of one
+     * IDENTITY insert per row, and assigns the generated ids to the given
+     * objects. The objects are not attached to the persistence context.
+     *
+     * @param notifications New notifications (user, complaint, message, type set)
+     */
+    void insertAll(List<Notification> notifications);
+}
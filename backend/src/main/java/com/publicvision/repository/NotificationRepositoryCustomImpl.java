@@ -0,0 +1,75 @@
+package com.publicvision.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import com.publicvision.entity.Notification;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO notifications "
+            + "(user_id, complaint_id, message, sent_at, is_read, type, digest_count, digest_complaint_ids) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Notification> notifications) {
+        for (int from = 0; from < notifications.size(); from += batchSize) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + batchSize, notifications.size()));
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Notification notification = chunk.get(i);
+                            ps.setLong(1, notification.getUser().getUserId());
+                            if (notification.getComplaint() != null) {
+                                ps.setLong(2, notification.getComplaint().getComplaintId());
+                            } else {
+                                ps.setNull(2, Types.BIGINT);
+                            }
+                            ps.setString(3, notification.getMessage());
+                            ps.setTimestamp(4, Timestamp.valueOf(notification.getSentAt()));
+                            ps.setBoolean(5, Boolean.TRUE.equals(notification.getIsRead()));
+                            ps.setString(6, notification.getType().name());
+                            if (notification.getDigestCount() != null) {
+                                ps.setInt(7, notification.getDigestCount());
+                            } else {
+                                ps.setNull(7, Types.INTEGER);
+                            }
+                            ps.setString(8, notification.getDigestComplaintIds());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size() && i < keys.size(); i++) {
+                Object key = keys.get(i).values().iterator().next();
+                chunk.get(i).setNotificationId(((Number) key).longValue());
+            }
+        }
+    }
+}
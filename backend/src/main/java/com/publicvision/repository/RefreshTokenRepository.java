@@ -0,0 +1,26 @@
+package com.publicvision.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Returns 0 when another request already consumed the token
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.id = :id")
+    int deleteByIdIfPresent(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.userId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+}
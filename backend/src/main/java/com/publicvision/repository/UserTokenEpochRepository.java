@@ -0,0 +1,22 @@
+package com.publicvision.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.publicvision.entity.UserTokenEpoch;
+
+@Repository
+public interface UserTokenEpochRepository extends JpaRepository<UserTokenEpoch, Long> {
+
+    List<UserTokenEpoch> findByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM UserTokenEpoch e WHERE e.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
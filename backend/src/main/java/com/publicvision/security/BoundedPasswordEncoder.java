@@ -0,0 +1,123 @@
+package com.publicvision.security;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.publicvision.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of the servlet thread's CPU
+ * budget. At most {@code threads} hashes run at once and at most
+ * {@code queueCapacity} wait; anything beyond that fails fast with 429, so a
+ * login storm cannot occupy every Tomcat worker with hashing.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer matchTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.matchTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "matches")
+                .description("Time spent hashing passwords")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "encode")
+                .description("Time spent hashing passwords")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes in progress")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashes refused because the hashing queue was full or timed out")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stops the hashing pool on context shutdown
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many login attempts in progress, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Too many login attempts in progress, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password check interrupted");
+        } catch (ExecutionException e) {
+            logger.error("Password hashing failed: {}", e.getCause().getMessage());
+            throw new RuntimeException("Password check failed");
+        }
+    }
+}
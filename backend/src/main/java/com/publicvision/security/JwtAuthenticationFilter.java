@@ -11,7 +11,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.publicvision.service.CustomUserDetailsService;
+import com.publicvision.service.TokenRevocationService;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -34,12 +39,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (jwt != null && !jwt.isEmpty()) {
             try {
-                String username = jwtTokenProvider.extractUsername(jwt);
+                // Parse and verify once; the claims are reused for validation
+                Claims claims = jwtTokenProvider.parseToken(jwt);
+                String username = claims.getSubject();
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                        && !tokenRevocationService.isRevoked(claims)) {
                     UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                    if (jwtTokenProvider.validateToken(jwt, userDetails)) {
+                    if (jwtTokenProvider.validateClaims(claims, userDetails)) {
                         UsernamePasswordAuthenticationToken authentication
                                 = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -0,0 +1,93 @@
+package com.publicvision.security;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.publicvision.service.CustomUserDetailsService;
+import com.publicvision.service.TokenRevocationService;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Authenticates WebSocket handshakes with the same JWT the REST API uses.
+ * Browsers cannot set headers on a WebSocket upgrade, so the token is read
+ * from the {@code token} query parameter (falling back to the Authorization
+ * header for non-browser clients).
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
+
+    public static final String AUTHENTICATION_ATTRIBUTE = "authentication";
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String jwt = getJwtFromRequest(request);
+        if (jwt == null || jwt.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            Claims claims = jwtTokenProvider.parseToken(jwt);
+            if (tokenRevocationService.isRevoked(claims)) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            if (jwtTokenProvider.validateClaims(claims, userDetails)) {
+                attributes.put(AUTHENTICATION_ATTRIBUTE,
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+                return true;
+            }
+        } catch (Exception e) {
+            log.debug("Rejected WebSocket handshake: {}", e.getMessage());
+        }
+
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+        // nothing to do
+    }
+
+    private String getJwtFromRequest(ServerHttpRequest request) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token != null) {
+            return token;
+        }
+
+        String bearerToken = request.getHeaders().getFirst("Authorization");
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+
+        return null;
+    }
+}
@@ -1,17 +1,30 @@
 package com.publicvision.security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.publicvision.service.TokenRevocationService;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtTokenProvider {
@@ -22,22 +35,80 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${app.jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    // Built once: deriving the key and the parser on every call dominated auth cost
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Verified claims by token hash, each entry dropped once its token expires
+    private final Map<String, VerifiedClaims> claimsCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = getSigningKey();
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public long getJwtExpiration() {
         return jwtExpiration;
     }
 
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        if (userDetails instanceof UserPrincipal principal) {
+            // Lets the revocation check find the user's token epoch without a lookup
+            builder.claim(TokenRevocationService.USER_ID_CLAIM, principal.getUserId());
+        }
+        return builder
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Parses and verifies a token once, reusing the verified claims of a token
+     * seen before until it expires. Invalid or expired tokens throw the usual
+     * jjwt exceptions.
+     *
+     * @param token Compact JWT
+     * @return Verified claims
+     */
+    public Claims parseToken(String token) {
+        String key = hash(token);
+        VerifiedClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return cached.claims;
+            }
+            claimsCache.remove(key);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            if (claimsCache.size() >= claimsCacheMaxSize) {
+                evictExpiredClaims();
+            }
+            if (claimsCache.size() < claimsCacheMaxSize) {
+                claimsCache.put(key, new VerifiedClaims(claims, claims.getExpiration().getTime()));
+            }
+        }
+        return claims;
+    }
+
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return validateClaims(parseToken(token), userDetails);
+    }
+
+    /**
+     * Checks already verified claims against the loaded user
+     */
+    public boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
     public String extractUsername(String token) {
@@ -49,12 +120,16 @@ public class JwtTokenProvider {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseToken(token));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+    /**
+     * Drops cached claims of expired tokens
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.claims-cache.evict-interval-ms:60000}")
+    public void evictExpiredClaims() {
+        long now = System.currentTimeMillis();
+        claimsCache.values().removeIf(entry -> entry.expiresAt <= now);
     }
 
     private Key getSigningKey() {
@@ -63,7 +138,7 @@ public class JwtTokenProvider {
         if (raw.length < 64) {
             // Deterministically stretch the secret using SHA-512 so restarts produce same key for same secret.
             try {
-                java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-512");
+                MessageDigest md = MessageDigest.getInstance("SHA-512");
                 byte[] digest = md.digest(raw); // 64 bytes
                 return Keys.hmacShaKeyFor(digest);
             } catch (Exception e) {
@@ -76,7 +151,27 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(raw);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class VerifiedClaims {
+
+        private final Claims claims;
+        private final long expiresAt;
+
+        VerifiedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
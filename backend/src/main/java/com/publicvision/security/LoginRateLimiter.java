@@ -0,0 +1,137 @@
+package com.publicvision.security;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token-bucket admission control for login and registration. Every attempt
+ * takes a token from the caller's IP bucket and, for logins, from the
+ * account's bucket; an empty bucket rejects the attempt with 429 before any
+ * password is hashed.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${app.auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auth.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${app.auth.rate-limit.ip.refill-per-minute:10}")
+    private int ipRefillPerMinute;
+
+    @Value("${app.auth.rate-limit.account.capacity:5}")
+    private int accountCapacity;
+
+    @Value("${app.auth.rate-limit.account.refill-per-minute:5}")
+    private int accountRefillPerMinute;
+
+    @Value("${app.auth.rate-limit.idle-ms:600000}")
+    private long idleMs;
+
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Counter ipThrottled;
+    private final Counter accountThrottled;
+
+    @Autowired
+    public LoginRateLimiter(MeterRegistry meterRegistry) {
+        this.ipThrottled = Counter.builder("auth.login.throttled")
+                .tag("scope", "ip")
+                .description("Login attempts rejected by rate limiting")
+                .register(meterRegistry);
+        this.accountThrottled = Counter.builder("auth.login.throttled")
+                .tag("scope", "account")
+                .description("Login attempts rejected by rate limiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits one attempt or throws {@link TooManyRequestsException}
+     *
+     * @param clientIp Remote address of the caller
+     * @param email Account being logged into, or null for registration
+     */
+    public void acquire(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+
+        TokenBucket ipBucket = ipBuckets.computeIfAbsent(clientIp,
+                k -> new TokenBucket(ipCapacity, ipRefillPerMinute));
+        long wait = ipBucket.tryConsume();
+        if (wait > 0) {
+            ipThrottled.increment();
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later", wait);
+        }
+
+        if (email != null && !email.isBlank()) {
+            TokenBucket accountBucket = accountBuckets.computeIfAbsent(email.trim().toLowerCase(Locale.ROOT),
+                    k -> new TokenBucket(accountCapacity, accountRefillPerMinute));
+            wait = accountBucket.tryConsume();
+            if (wait > 0) {
+                accountThrottled.increment();
+                throw new TooManyRequestsException("Too many login attempts for this account, please retry later",
+                        wait);
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have not been used for the idle period; they would
+     * be full again by now
+     */
+    @Scheduled(fixedDelayString = "${app.auth.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        ipBuckets.values().removeIf(bucket -> bucket.lastUsed() < cutoff);
+        accountBuckets.values().removeIf(bucket -> bucket.lastUsed() < cutoff);
+    }
+
+    private static class TokenBucket {
+
+        private final double capacity;
+        private final double refillPerMs;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMs = refillPerMinute / 60000.0;
+            this.tokens = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        /**
+         * Takes a token if one is available
+         *
+         * @return 0 when admitted, otherwise seconds until the next token
+         */
+        synchronized long tryConsume() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMs);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerMs / 1000));
+        }
+
+        synchronized long lastUsed() {
+            return lastRefill;
+        }
+    }
+}
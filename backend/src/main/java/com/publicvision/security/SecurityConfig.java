@@ -1,6 +1,7 @@
 package com.publicvision.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -22,6 +22,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.publicvision.service.CustomUserDetailsService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.Arrays;
 
 @Configuration
@@ -37,6 +39,18 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.hashing.threads:4}")
+    private int hashingThreads;
+
+    @Value("${app.auth.hashing.queue-capacity:32}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.auth.hashing.timeout-ms:5000}")
+    private long hashingTimeoutMs;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         log.info("Configuring SecurityFilterChain (modern style)");
@@ -48,6 +62,10 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**", "/api/public/**", "/error", "/favicon.ico").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/api/complaints/public/**").permitAll()
+                // WebSocket handshake authenticates the ?token= itself (JwtHandshakeInterceptor)
+                .requestMatchers("/ws", "/ws/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/staff/**").hasAnyRole("ADMIN", "STAFF")
                 .anyRequest().authenticated()
@@ -67,9 +85,13 @@ public class SecurityConfig {
         return authProvider;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * BCrypt on a bounded hashing pool; see {@link BoundedPasswordEncoder}
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashingThreads, hashingQueueCapacity,
+                hashingTimeoutMs, meterRegistry);
     }
 
     @Bean
@@ -88,7 +110,7 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
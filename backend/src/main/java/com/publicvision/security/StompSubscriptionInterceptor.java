@@ -0,0 +1,70 @@
+package com.publicvision.security;
+
+import java.security.Principal;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Restricts STOMP subscriptions to per-role topics
+ * ({@code /topic/role/{ROLE}/...}) to sessions holding that role, and blocks
+ * clients from publishing to broker destinations.
+ *
+ * Per-user queues are only reachable as {@code /user/queue/...}, which the
+ * broker resolves to the subscribing session's own queue. Subscribing to a
+ * resolved queue ({@code /queue/...-user{session}}) or naming a user in the
+ * destination ({@code /user/{name}/queue/...}) is rejected.
+ */
+@Component
+public class StompSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String ROLE_TOPIC_PREFIX = "/topic/role/";
+    private static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (accessor.getCommand() == StompCommand.SEND && destination != null
+                && (destination.startsWith("/topic/") || destination.startsWith("/queue/") || destination.startsWith("/user/"))) {
+            throw new MessagingException("Clients cannot publish to " + destination);
+        }
+
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE && destination != null
+                && destination.startsWith(ROLE_TOPIC_PREFIX)) {
+            String rest = destination.substring(ROLE_TOPIC_PREFIX.length());
+            int slash = rest.indexOf('/');
+            String role = slash >= 0 ? rest.substring(0, slash) : rest;
+            if (!hasRole(accessor.getUser(), role)) {
+                throw new MessagingException("Not allowed to subscribe to " + destination);
+            }
+        }
+
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE && destination != null
+                && (destination.startsWith("/queue/")
+                        || (destination.startsWith("/user/") && !destination.startsWith(USER_QUEUE_PREFIX)))) {
+            throw new MessagingException("Not allowed to subscribe to " + destination);
+        }
+
+        return message;
+    }
+
+    private boolean hasRole(Principal principal, String role) {
+        if (!(principal instanceof Authentication authentication)) {
+            return false;
+        }
+        String authority = "ROLE_" + role;
+        return authentication.getAuthorities().stream().anyMatch(a -> authority.equals(a.getAuthority()));
+    }
+}
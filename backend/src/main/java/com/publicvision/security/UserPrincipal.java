@@ -0,0 +1,94 @@
+package com.publicvision.security;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.publicvision.entity.User;
+
+/**
+ * Authenticated user as stored in the security context. Carries the id, name
+ * and role so services can identify the caller without querying the users
+ * table again.
+ *
+ * Deliberately not a CredentialsContainer: instances are cached by
+ * {@link com.publicvision.service.CustomUserDetailsService}, and erasing the
+ * password after login would break the next login from the cache.
+ */
+public class UserPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String email;
+    private final String name;
+    private final User.Role role;
+    private final String password;
+    private final Collection<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long userId, String email, String name, User.Role role, String password) {
+        this.userId = userId;
+        this.email = email;
+        this.name = name;
+        this.role = role;
+        this.password = password;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getUserId(), user.getEmail(), user.getName(), user.getRole(),
+                user.getPassword());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.publicvision.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handler registry and local dispatch shared by the event bus
+ * implementations
+ */
+public abstract class AbstractClusterEventBus implements ClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractClusterEventBus.class);
+
+    private final Map<String, List<Handler<?>>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> void subscribe(String topic, Class<T> type, Consumer<T> handler) {
+        handlers.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(new Handler<>(type, handler, true));
+    }
+
+    @Override
+    public <T> void subscribeRemote(String topic, Class<T> type, Consumer<T> handler) {
+        handlers.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>()).add(new Handler<>(type, handler, false));
+    }
+
+    /**
+     * Runs the handlers for an event published on this node
+     */
+    protected void deliverLocal(String topic, Object payload) {
+        for (Handler<?> handler : handlers.getOrDefault(topic, List.of())) {
+            if (handler.local) {
+                invoke(topic, handler, type -> type.cast(payload));
+            }
+        }
+    }
+
+    /**
+     * Runs the handlers for an event received from another node
+     *
+     * @param reader Converts the serialized payload to a handler's type
+     */
+    protected void deliverRemote(String topic, Function<Class<?>, Object> reader) {
+        for (Handler<?> handler : handlers.getOrDefault(topic, List.of())) {
+            invoke(topic, handler, reader);
+        }
+    }
+
+    private static <T> void invoke(String topic, Handler<T> handler, Function<Class<?>, Object> reader) {
+        try {
+            handler.consumer.accept(handler.type.cast(reader.apply(handler.type)));
+        } catch (Exception e) {
+            logger.warn("Handler for cluster event {} failed: {}", topic, e.getMessage());
+        }
+    }
+
+    private static class Handler<T> {
+
+        private final Class<T> type;
+        private final Consumer<T> consumer;
+        private final boolean local;
+
+        Handler(Class<T> type, Consumer<T> consumer, boolean local) {
+            this.type = type;
+            this.consumer = consumer;
+            this.local = local;
+        }
+    }
+}
@@ -7,15 +7,21 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.publicvision.dto.JwtResponse;
 import com.publicvision.dto.LoginRequest;
 import com.publicvision.dto.RegisterRequest;
 import com.publicvision.dto.UserDTO;
+import com.publicvision.dto.auth.TokenRefreshRequest;
 import com.publicvision.entity.User;
 import com.publicvision.entity.User.Role;
 import com.publicvision.repository.UserRepository;
 import com.publicvision.security.JwtTokenProvider;
+import com.publicvision.security.UserPrincipal;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 
 @Service
 public class AuthService {
@@ -32,6 +38,12 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     public JwtResponse login(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
@@ -46,11 +58,47 @@ public class AuthService {
 
         long expiresIn = jwtTokenProvider.getJwtExpiration();
         JwtResponse resp = new JwtResponse(jwt, expiresIn, UserDTO.from(user));
-        // refresh token placeholder (same as access for now)
-        resp.setRefreshToken(jwt);
+        resp.setRefreshToken(refreshTokenService.issue(user.getUserId()));
+        return resp;
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token. The refresh token is
+     * rotated: the presented one is consumed and a new one is returned.
+     */
+    @Transactional
+    public JwtResponse refresh(TokenRefreshRequest request) {
+        Long userId = refreshTokenService.consume(request.getRefreshToken());
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        String jwt = jwtTokenProvider.generateToken(UserPrincipal.from(user));
+        JwtResponse resp = new JwtResponse(jwt, jwtTokenProvider.getJwtExpiration(), UserDTO.from(user));
+        resp.setRefreshToken(refreshTokenService.issue(user.getUserId()));
         return resp;
     }
 
+    /**
+     * Revokes the presented access token and, if given, the refresh token
+     *
+     * @param accessToken Access token from the Authorization header, or null
+     * @param refreshToken Refresh token to revoke, or null
+     */
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                Claims claims = jwtTokenProvider.parseToken(accessToken);
+                tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+            } catch (JwtException e) {
+                // Invalid or already expired; nothing to revoke
+            }
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
     public UserDTO register(RegisterRequest registerRequest) {
         // Check if user already exists
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
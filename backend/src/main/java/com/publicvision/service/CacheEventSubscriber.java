@@ -0,0 +1,35 @@
+package com.publicvision.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.entity.ComplaintEvent;
+
+/**
+ * Invalidates this node's complaint caches when complaints change on any
+ * node
+ */
+@Component
+public class CacheEventSubscriber implements ComplaintEventSubscriber {
+
+    @Autowired
+    private RecentComplaintsCache recentComplaintsCache;
+
+    @Override
+    public String getName() {
+        return "caches";
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return true;
+    }
+
+    @Override
+    public void onEvents(List<ComplaintEvent> events) {
+        // Every event type changes what the recent feed shows; once per batch is enough
+        recentComplaintsCache.invalidate();
+    }
+}
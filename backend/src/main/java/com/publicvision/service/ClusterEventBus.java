@@ -0,0 +1,36 @@
+package com.publicvision.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Publishes events to every backend instance, e.g. to deliver a
+ * notification to a user whose SSE connection sits on another node or to
+ * drop a cache entry everywhere. Selected with app.cluster.event-bus:
+ * "memory" (single node, the default) or "jdbc" (shared table, no broker).
+ *
+ * Delivery is best effort and meant for transient effects; durable work
+ * belongs in the complaint event outbox.
+ */
+public interface ClusterEventBus {
+
+    /**
+     * Publishes an event once the current transaction commits, or
+     * immediately outside a transaction. Handlers on this node run right
+     * away; other nodes receive the event on their next poll.
+     *
+     * @param topic Event topic
+     * @param payload Event data; must be serializable to JSON
+     */
+    void publish(String topic, Object payload);
+
+    /**
+     * Registers a handler for events from every node, including this one
+     */
+    <T> void subscribe(String topic, Class<T> type, Consumer<T> handler);
+
+    /**
+     * Registers a handler for events published by other nodes only, for
+     * state this node already updated itself
+     */
+    <T> void subscribeRemote(String topic, Class<T> type, Consumer<T> handler);
+}
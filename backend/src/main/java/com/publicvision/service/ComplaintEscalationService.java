@@ -3,107 +3,115 @@ package com.publicvision.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.publicvision.dto.ComplaintDTO;
 import com.publicvision.entity.Complaint;
 import com.publicvision.entity.Complaint.ComplaintStatus;
-import com.publicvision.entity.Notification.NotificationType;
-import com.publicvision.entity.User;
 import com.publicvision.repository.ComplaintRepository;
-import com.publicvision.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ComplaintEscalationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ComplaintEscalationService.class);
 
+    private static final String JOB_NAME = "complaint-escalation";
+
     @Autowired
     private ComplaintRepository complaintRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ComplaintEventPublisher complaintEventPublisher;
+
+    @Autowired
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @Autowired
+    private ResolutionTimeService resolutionTimeService;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.complaints.escalation.shards:4}")
+    private int shards;
+
+    @Value("${app.complaints.escalation.range-size:10000}")
+    private long rangeSize;
+
+    @Value("${app.complaints.escalation.lease-hold-ms:1800000}")
+    private long leaseHoldMs;
+
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    private NotificationService notificationService;
+    public ComplaintEscalationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * Scheduled task that runs every hour to check for overdue complaints and
-     * escalate them if needed
+     * escalate them if needed. The complaints are split into shards by id
+     * range, each escalated under its own lease, so every overdue complaint
+     * is escalated once even with several nodes and the nodes share the scan.
      */
-    @Scheduled(fixedRate = 3600000) // Run every hour (3600000 ms)
-    @Transactional
+    @Scheduled(cron = "${app.complaints.escalation.cron:0 0 * * * *}")
     public void checkAndEscalateOverdueComplaints() {
         logger.info("Running scheduled task to check for overdue complaints");
 
         LocalDateTime now = LocalDateTime.now();
-        List<Complaint> overdueComplaints = complaintRepository.findOverdueComplaints(now);
+        long maxId = complaintRepository.findMaxComplaintId();
+        AtomicInteger escalated = new AtomicInteger();
+        int processed = jobLeaseService.runSharded(JOB_NAME, shards, leaseHoldMs,
+                shard -> escalated.addAndGet(escalateShard(shard, now, maxId)));
 
-        logger.info("Found {} overdue complaints to escalate", overdueComplaints.size());
+        logger.info("Escalated {} overdue complaints in {} of {} shards", escalated.get(), processed, shards);
+    }
 
-        if (overdueComplaints.isEmpty()) {
-            return;
+    /**
+     * Escalates the overdue complaints of one shard; shard n owns every n-th
+     * block of range-size complaint ids. Each block is one transaction, and
+     * the shard stops once its lease is lost, as another node may have taken
+     * it over.
+     */
+    private int escalateShard(int shard, LocalDateTime now, long maxId) {
+        String lease = JobLeaseService.shardName(JOB_NAME, shard);
+        int total = 0;
+        for (long from = shard * rangeSize + 1; from <= maxId; from += shards * rangeSize) {
+            if (!jobLeaseService.isHeld(lease)) {
+                logger.warn("Lost the lease for escalation shard {}; stopping after {} complaints", shard, total);
+                break;
+            }
+            long fromId = from;
+            Integer escalated = transactionTemplate.execute(status -> escalate(
+                    complaintRepository.findOverdueComplaintsInRange(now, fromId, fromId + rangeSize - 1), now));
+            total += escalated != null ? escalated : 0;
         }
+        return total;
+    }
 
-        // Get admin users to notify
-        List<User> adminUsers = userRepository.findByRole("ADMIN");
-
+    private int escalate(List<Complaint> overdueComplaints, LocalDateTime now) {
         for (Complaint complaint : overdueComplaints) {
             // Set escalated flag and status
+            ComplaintStatus oldStatus = complaint.getStatus();
             complaint.setEscalated(true);
             complaint.setStatus(ComplaintStatus.ESCALATED);
             complaint.setUpdatedAt(now);
 
-            // Save changes
+            // Save changes; counters and notifications follow from the ESCALATED event
             complaintRepository.save(complaint);
-
-            // Notify complaint owner
-            String ownerMessage = String.format(
-                    "Your complaint '%s' has been escalated due to exceeding SLA time limit.",
-                    complaint.getTitle()
-            );
-            notificationService.createNotification(
-                    complaint.getUser(),
-                    ownerMessage,
-                    NotificationType.STATUS_CHANGE,
-                    complaint
-            );
-
-            // Notify assigned staff if any
-            if (complaint.getAssignedTo() != null) {
-                String staffMessage = String.format(
-                        "Complaint '%s' has been automatically escalated due to exceeding SLA time limit.",
-                        complaint.getTitle()
-                );
-                notificationService.createNotification(
-                        complaint.getAssignedTo(),
-                        staffMessage,
-                        NotificationType.STATUS_CHANGE,
-                        complaint
-                );
-            }
-
-            // Notify all admins
-            String adminMessage = String.format(
-                    "ESCALATED: Complaint '%s' (ID: %d) has exceeded SLA time limit and requires attention.",
-                    complaint.getTitle(),
-                    complaint.getComplaintId()
-            );
-
-            for (User admin : adminUsers) {
-                notificationService.createNotification(
-                        admin,
-                        adminMessage,
-                        NotificationType.STATUS_CHANGE,
-                        complaint
-                );
-            }
+            resolutionTimeService.onStatusChange(complaint, oldStatus, ComplaintStatus.ESCALATED);
+            complaintEventPublisher.escalated(complaint, oldStatus);
+            realtimeMessagingService.complaintStatusChanged(ComplaintDTO.from(complaint),
+                    complaint.getUser().getEmail(), oldStatus);
         }
-
-        logger.info("Successfully escalated {} overdue complaints", overdueComplaints.size());
+        return overdueComplaints.size();
     }
 }
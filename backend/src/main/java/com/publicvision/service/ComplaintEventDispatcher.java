@@ -0,0 +1,414 @@
+package com.publicvision.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.publicvision.entity.ComplaintEvent;
+import com.publicvision.entity.EventConsumerOffset;
+import com.publicvision.repository.ComplaintEventRepository;
+import com.publicvision.repository.EventConsumerOffsetRepository;
+import com.publicvision.util.TransactionUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Polls the complaint_events outbox and hands new events to every
+ * {@link ComplaintEventSubscriber} in batches. Each subscriber has its own
+ * offset: shared subscribers keep it in event_consumer_offsets and advance
+ * it in the transaction that runs their handler, node-local ones keep it in
+ * memory. Offsets move only after a batch succeeds, so delivery is at least
+ * once and a failing subscriber does not hold up the others.
+ *
+ * Event ids are assigned at insert but become visible at commit, so a
+ * lower id can appear after a higher one. Batches do not wait at such gaps:
+ * each subscriber's position remembers the ids it passed while they were
+ * missing, and they are looked up again on every poll and delivered once
+ * they commit. An id still missing after the gap timeout, measured on this
+ * node's clock from when it was first found missing, is given up (usually a
+ * rolled back insert) but still looked up for a while longer, so a very late
+ * commit is delivered too. The stored offset stays below the lowest id still
+ * pending, so those events are not swept.
+ */
+@Service
+public class ComplaintEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComplaintEventDispatcher.class);
+
+    private static final String SWEEP_JOB = "complaint-events-sweep";
+
+    private static final String DELETE_DELIVERED = "DELETE FROM complaint_events "
+            + "WHERE id <= :maxId AND created_at < :cutoff LIMIT :limit";
+
+    @Autowired
+    private ComplaintEventRepository complaintEventRepository;
+
+    @Autowired
+    private EventConsumerOffsetRepository offsetRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.events.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.events.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.events.gap-recheck-ms:60000}")
+    private long gapRecheckMs;
+
+    @Value("${app.events.max-tracked-gaps:1000}")
+    private int maxTrackedGaps;
+
+    @Value("${app.events.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Value("${app.events.sweep-interval-ms:3600000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.events.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+
+    private final List<ComplaintEventSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong latestEventId = new AtomicLong();
+    // Subscriber name -> stored offset as seen by this node
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    // Node-local subscriber name -> its position
+    private final Map<String, Position> localPositions = new HashMap<>();
+    // Missing ids -> when this node first found them missing
+    private final TreeMap<Long, Long> missing = new TreeMap<>();
+    // Ids given up after the gap timeout -> when they were given up; still looked up
+    private final TreeMap<Long, Long> skipped = new TreeMap<>();
+    private long lastSkippedCheck;
+    private boolean recheckSkipped;
+    private final Map<String, Timer> deliveryTimers = new HashMap<>();
+    private final Map<String, Counter> deliveryFailures = new HashMap<>();
+    private final Counter skippedGaps;
+    private final Counter recoveredGaps;
+
+    @Autowired
+    public ComplaintEventDispatcher(List<ComplaintEventSubscriber> subscribers,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.skippedGaps = Counter.builder("complaints.events.gaps.skipped")
+                .description("Complaint event ids still missing after the gap timeout")
+                .register(meterRegistry);
+        this.recoveredGaps = Counter.builder("complaints.events.gaps.recovered")
+                .description("Complaint event ids delivered after they were given up")
+                .register(meterRegistry);
+
+        for (ComplaintEventSubscriber subscriber : subscribers) {
+            String name = subscriber.getName();
+            deliveryTimers.put(name, Timer.builder("complaints.events.delivery")
+                    .tag("consumer", name)
+                    .description("Time a subscriber spent handling a batch of complaint events")
+                    .register(meterRegistry));
+            deliveryFailures.put(name, Counter.builder("complaints.events.delivery.failures")
+                    .tag("consumer", name)
+                    .description("Complaint event batches a subscriber failed to handle")
+                    .register(meterRegistry));
+            Gauge.builder("complaints.events.lag", this, d -> d.lag(name))
+                    .tag("consumer", name)
+                    .description("Complaint events not yet delivered to a subscriber")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Delivers the next batch of events to each subscriber
+     */
+    @Scheduled(fixedDelayString = "${app.events.poll-interval-ms:500}")
+    public void deliver() {
+        try {
+            latestEventId.set(complaintEventRepository.findMaxId());
+        } catch (Exception e) {
+            logger.error("Polling complaint events failed", e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Given-up ids are mostly rolled back for good; look them up once per gap timeout
+        recheckSkipped = !skipped.isEmpty() && now - lastSkippedCheck >= gapTimeoutMs;
+        if (recheckSkipped) {
+            lastSkippedCheck = now;
+        }
+
+        for (ComplaintEventSubscriber subscriber : subscribers) {
+            try {
+                if (subscriber.isNodeLocal()) {
+                    deliverLocal(subscriber);
+                } else {
+                    deliverShared(subscriber);
+                }
+            } catch (Exception e) {
+                deliveryFailures.get(subscriber.getName()).increment();
+                logger.error("Delivering complaint events to {} failed", subscriber.getName(), e);
+            }
+        }
+
+        // Ids at or below every offset are no longer pending anywhere
+        offsets.values().stream().min(Long::compare).ifPresent(minOffset -> {
+            missing.headMap(minOffset, true).clear();
+            skipped.headMap(minOffset, true).clear();
+        });
+    }
+
+    /**
+     * Deletes events that every shared subscriber has processed and that are
+     * older than the retention period, on one node per interval
+     */
+    @Scheduled(initialDelayString = "${app.events.sweep-interval-ms:3600000}",
+            fixedDelayString = "${app.events.sweep-interval-ms:3600000}")
+    public void sweepDelivered() {
+        jobLeaseService.runExclusive(SWEEP_JOB, sweepIntervalMs, this::deleteDelivered);
+    }
+
+    private void deleteDelivered() {
+        Long minOffset = offsetRepository.findMinLastEventId();
+        if (minOffset == null) {
+            return;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("maxId", minOffset)
+                .addValue("cutoff", LocalDateTime.now().minus(retentionMs, ChronoUnit.MILLIS))
+                .addValue("limit", sweepBatchSize);
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_DELIVERED, params);
+                total += deleted;
+            } while (deleted == sweepBatchSize);
+        } catch (Exception e) {
+            logger.error("Sweeping delivered complaint events failed", e);
+        }
+        if (total > 0) {
+            logger.info("Deleted {} delivered complaint events", total);
+        }
+    }
+
+    private void deliverLocal(ComplaintEventSubscriber subscriber) {
+        String name = subscriber.getName();
+        // Node-local state is built from the tables at startup; only later events apply
+        Position position = localPositions.computeIfAbsent(name, k -> startPosition(latestEventId.get()));
+        Position next = position.copy();
+        List<ComplaintEvent> batch = nextBatch(next);
+        if (!batch.isEmpty()) {
+            deliveryTimers.get(name).record(() -> subscriber.onEvents(batch));
+        }
+        localPositions.put(name, next);
+        offsets.put(name, next.offset());
+    }
+
+    private void deliverShared(ComplaintEventSubscriber subscriber) {
+        String name = subscriber.getName();
+        transactionTemplate.executeWithoutResult(status -> {
+            EventConsumerOffset offset = offsetRepository.lockByConsumer(name).orElse(null);
+            if (offset == null) {
+                if (offsetRepository.existsById(name)) {
+                    // Another node is delivering to this subscriber
+                    return;
+                }
+                offset = new EventConsumerOffset();
+                offset.setConsumer(name);
+                offset.setLastEventId(0L);
+                offset = offsetRepository.saveAndFlush(offset);
+            }
+
+            long deliveredThrough = offset.getDeliveredThrough() != null
+                    ? offset.getDeliveredThrough() : offset.getLastEventId();
+            Position next = new Position(deliveredThrough, Position.parse(offset.getPendingIds()));
+            String pendingBefore = next.pendingIds();
+            offsets.put(name, next.offset());
+            List<ComplaintEvent> batch = nextBatch(next);
+            if (!batch.isEmpty()) {
+                deliveryTimers.get(name).record(() -> subscriber.onEvents(batch));
+            } else if (next.deliveredThrough == deliveredThrough && next.pendingIds().equals(pendingBefore)) {
+                return;
+            }
+
+            long delivered = next.offset();
+            offset.setLastEventId(delivered);
+            offset.setDeliveredThrough(next.deliveredThrough);
+            offset.setPendingIds(next.pendingIds());
+            offset.setUpdatedAt(LocalDateTime.now());
+            TransactionUtils.afterCommit(() -> offsets.put(name, delivered));
+        });
+    }
+
+    /**
+     * Position of a node-local subscriber starting at the newest event: ids
+     * just below it that are still missing may belong to transactions that
+     * have not committed yet, so they start out pending
+     */
+    private Position startPosition(long latest) {
+        long from = Math.max(0, latest - maxTrackedGaps);
+        TreeSet<Long> pending = new TreeSet<>();
+        for (long id = from + 1; id <= latest; id++) {
+            pending.add(id);
+        }
+        pending.removeAll(complaintEventRepository.findIdsAfter(from));
+        return new Position(latest, pending);
+    }
+
+    /**
+     * Pending events that have committed since the last poll plus the next
+     * events after the position, in id order; advances the position past
+     * them and gives up pending ids that stayed missing too long
+     */
+    private List<ComplaintEvent> nextBatch(Position position) {
+        long now = System.currentTimeMillis();
+        List<ComplaintEvent> batch = new ArrayList<>();
+
+        List<Long> lookups = new ArrayList<>();
+        for (Long id : position.pending) {
+            if (recheckSkipped || !skipped.containsKey(id)) {
+                lookups.add(id);
+            }
+        }
+        if (!lookups.isEmpty()) {
+            for (ComplaintEvent event : complaintEventRepository.findAllById(lookups)) {
+                position.pending.remove(event.getId());
+                if (skipped.remove(event.getId()) != null) {
+                    recoveredGaps.increment();
+                    logger.info("Complaint event {} committed after its gap was skipped", event.getId());
+                }
+                batch.add(event);
+            }
+        }
+
+        for (ComplaintEvent event : complaintEventRepository.findAfter(position.deliveredThrough,
+                PageRequest.of(0, batchSize))) {
+            // A new subscriber starts at 0; the ids before the oldest retained event were swept
+            if (position.deliveredThrough > 0) {
+                trackMissing(position, position.deliveredThrough + 1, event.getId());
+            }
+            batch.add(event);
+            position.deliveredThrough = event.getId();
+        }
+
+        Iterator<Long> pending = position.pending.iterator();
+        while (pending.hasNext()) {
+            Long id = pending.next();
+            Long givenUpAt = skipped.get(id);
+            if (givenUpAt != null) {
+                if (now - givenUpAt >= gapRecheckMs) {
+                    pending.remove();
+                }
+                continue;
+            }
+            Long since = missing.putIfAbsent(id, now);
+            if (since != null && now - since >= gapTimeoutMs) {
+                missing.remove(id);
+                skipped.put(id, now);
+                skippedGaps.increment();
+                logger.debug("Complaint event {} still missing after the gap timeout", id);
+            }
+        }
+
+        batch.sort(Comparator.comparing(ComplaintEvent::getId));
+        return batch;
+    }
+
+    /**
+     * Marks the ids in [fromId, toId) as pending for the position
+     */
+    private void trackMissing(Position position, long fromId, long toId) {
+        if (toId - fromId > maxTrackedGaps) {
+            // A jump this large is not a few in-flight transactions; only the newest ids are waited for
+            logger.warn("Skipping {} complaint event ids below {} without waiting", toId - fromId - maxTrackedGaps,
+                    toId - maxTrackedGaps);
+            fromId = toId - maxTrackedGaps;
+        }
+        for (long id = fromId; id < toId; id++) {
+            position.pending.add(id);
+        }
+        while (position.pending.size() > maxTrackedGaps) {
+            Long dropped = position.pending.pollFirst();
+            skippedGaps.increment();
+            logger.warn("Too many missing complaint event ids; no longer waiting for {}", dropped);
+        }
+    }
+
+    private double lag(String name) {
+        Long offset = offsets.get(name);
+        return offset == null ? 0 : Math.max(0, latestEventId.get() - offset);
+    }
+
+    /**
+     * Where a subscriber stands: every event up to deliveredThrough has been
+     * delivered except the pending ones, which were missing when passed
+     */
+    private static final class Position {
+
+        private long deliveredThrough;
+        private final TreeSet<Long> pending;
+
+        private Position(long deliveredThrough, TreeSet<Long> pending) {
+            this.deliveredThrough = deliveredThrough;
+            this.pending = pending;
+        }
+
+        private Position copy() {
+            return new Position(deliveredThrough, new TreeSet<>(pending));
+        }
+
+        /**
+         * Highest id up to which every event has been delivered or given up
+         */
+        private long offset() {
+            return pending.isEmpty() ? deliveredThrough : Math.min(deliveredThrough, pending.first() - 1);
+        }
+
+        private String pendingIds() {
+            StringBuilder ids = new StringBuilder();
+            for (Long id : pending) {
+                if (ids.length() > 0) {
+                    ids.append(',');
+                }
+                ids.append(id);
+            }
+            return ids.toString();
+        }
+
+        private static TreeSet<Long> parse(String pendingIds) {
+            TreeSet<Long> pending = new TreeSet<>();
+            if (pendingIds != null && !pendingIds.isBlank()) {
+                for (String id : pendingIds.split(",")) {
+                    pending.add(Long.parseLong(id.trim()));
+                }
+            }
+            return pending;
+        }
+    }
+}
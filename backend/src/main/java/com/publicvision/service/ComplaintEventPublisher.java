@@ -0,0 +1,66 @@
+package com.publicvision.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.entity.ComplaintEvent;
+import com.publicvision.repository.ComplaintEventRepository;
+
+/**
+ * Writes complaint domain events to the outbox. Each method must run in the
+ * transaction that makes the change, so an event exists exactly when the
+ * change was committed.
+ */
+@Service
+public class ComplaintEventPublisher {
+
+    @Autowired
+    private ComplaintEventRepository complaintEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Complaint complaint, Long actorId) {
+        ComplaintEvent event = newEvent(ComplaintEvent.Type.CREATED, complaint, actorId);
+        event.setNewStatus(complaint.getStatus());
+        complaintEventRepository.save(event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Complaint complaint, ComplaintStatus oldStatus, ComplaintStatus newStatus,
+            Long actorId) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        ComplaintEvent event = newEvent(ComplaintEvent.Type.STATUS_CHANGED, complaint, actorId);
+        event.setOldStatus(oldStatus);
+        event.setNewStatus(newStatus);
+        complaintEventRepository.save(event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void merged(Complaint duplicate, Complaint original) {
+        ComplaintEvent event = newEvent(ComplaintEvent.Type.MERGED, duplicate, null);
+        event.setRelatedComplaintId(original.getComplaintId());
+        complaintEventRepository.save(event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void escalated(Complaint complaint, ComplaintStatus oldStatus) {
+        ComplaintEvent event = newEvent(ComplaintEvent.Type.ESCALATED, complaint, null);
+        event.setOldStatus(oldStatus);
+        event.setNewStatus(complaint.getStatus());
+        complaintEventRepository.save(event);
+    }
+
+    private static ComplaintEvent newEvent(ComplaintEvent.Type type, Complaint complaint, Long actorId) {
+        ComplaintEvent event = new ComplaintEvent();
+        event.setType(type);
+        event.setComplaintId(complaint.getComplaintId());
+        event.setCategory(complaint.getCategory());
+        event.setActorId(actorId);
+        return event;
+    }
+}
@@ -0,0 +1,32 @@
+package com.publicvision.service;
+
+import java.util.List;
+
+import com.publicvision.entity.ComplaintEvent;
+
+/**
+ * Receives complaint domain events from {@link ComplaintEventDispatcher}.
+ * Events arrive at least once: a batch that throws is delivered again on the
+ * next poll, so handlers must tolerate repeats. A batch is in id order, but
+ * an event whose transaction committed late can arrive after higher ids.
+ */
+public interface ComplaintEventSubscriber {
+
+    /**
+     * Stable name; the subscriber's offset is stored under it
+     */
+    String getName();
+
+    /**
+     * Whether the subscriber keeps per-node state such as counters or
+     * caches. Node-local subscribers see every event on every node, starting
+     * from the newest event at startup. Shared subscribers see each event on
+     * one node only, inside the transaction that advances their stored
+     * offset.
+     */
+    default boolean isNodeLocal() {
+        return false;
+    }
+
+    void onEvents(List<ComplaintEvent> events);
+}
@@ -0,0 +1,477 @@
+package com.publicvision.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.ComplaintImage;
+import com.publicvision.entity.ComplaintPipelineTask;
+import com.publicvision.entity.ComplaintPipelineTask.Stage;
+import com.publicvision.entity.Notification;
+import com.publicvision.entity.Notification.NotificationType;
+import com.publicvision.entity.User;
+import com.publicvision.repository.ComplaintImageRepository;
+import com.publicvision.repository.ComplaintPipelineTaskRepository;
+import com.publicvision.repository.ComplaintRepository;
+import com.publicvision.repository.UserRepository;
+import com.publicvision.util.TransactionUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background work that follows a complaint submission, run as stages:
+ * image processing, reverse geocoding, duplicate check and notification
+ * fan-out. The submission only spools its images and writes the first
+ * task; every stage then does its work and swaps its task for the next one
+ * in a single transaction, so a crash repeats at most the interrupted stage.
+ *
+ * Tasks are handed to a small worker pool right after commit and picked up
+ * by a poller otherwise (after a restart, on another node, or for retries).
+ * Rows are claimed with SKIP LOCKED, so several nodes can share the queue.
+ * Failed stages are retried with backoff; after the last attempt the task
+ * is kept as FAILED and the pipeline moves on to the next stage. Spooled
+ * images are deleted when the submission rolls back or their stage fails
+ * for good.
+ */
+@Service
+public class ComplaintPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComplaintPipelineService.class);
+
+    private static final TypeReference<List<StagedImage>> STAGED_IMAGES = new TypeReference<>() {};
+
+    @Autowired
+    private ComplaintPipelineTaskRepository taskRepository;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintImageRepository complaintImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private DuplicateComplaintService duplicateComplaintService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @Autowired
+    private RecentComplaintsCache recentComplaintsCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.complaints.pipeline.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.complaints.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.complaints.pipeline.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final MeterRegistry meterRegistry;
+    // Task ids queued or running on this node
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Timer completionTimer;
+    private final Counter failedTasks;
+
+    @Autowired
+    public ComplaintPipelineService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.complaints.pipeline.workers:2}") int workerThreads,
+            @Value("${app.complaints.pipeline.queue-capacity:1000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "complaint-pipeline-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("complaints.pipeline.pending", pendingTasks, AtomicLong::get)
+                .description("Pipeline tasks waiting to run, as of the last poll")
+                .register(meterRegistry);
+        Gauge.builder("complaints.pipeline.queue.depth", workers, e -> e.getQueue().size())
+                .description("Pipeline tasks waiting for a worker thread on this node")
+                .register(meterRegistry);
+        this.completionTimer = Timer.builder("complaints.pipeline.completion")
+                .description("Time from complaint submission until the last pipeline stage finished")
+                .register(meterRegistry);
+        this.failedTasks = Counter.builder("complaints.pipeline.tasks.failed")
+                .description("Pipeline stages given up after the last retry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Spools the uploaded images and queues the first stage for a new
+     * complaint. Must run in the transaction that saves the complaint.
+     *
+     * @param complaint Saved complaint
+     * @param images Uploaded images, may be null
+     */
+    public void enqueue(Complaint complaint, List<MultipartFile> images) {
+        List<StagedImage> staged = new ArrayList<>();
+        // Without a commit no task will ever pick the spooled files up
+        TransactionUtils.afterRollback(() -> deleteFiles(staged));
+        if (images != null) {
+            for (MultipartFile image : images) {
+                if (!image.isEmpty()) {
+                    staged.add(new StagedImage(fileStorageService.spoolFile(image),
+                            image.getOriginalFilename(), image.getContentType()));
+                }
+            }
+        }
+
+        String payload = null;
+        if (!staged.isEmpty()) {
+            try {
+                payload = objectMapper.writeValueAsString(staged);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to queue images for processing");
+            }
+        }
+        Stage first = staged.isEmpty() ? Stage.GEOCODE : Stage.IMAGES;
+        ComplaintPipelineTask task = taskRepository.save(newTask(complaint.getComplaintId(), first, payload));
+        TransactionUtils.afterCommit(() -> dispatch(task.getId()));
+    }
+
+    /**
+     * Picks up due tasks that were not dispatched directly: retries, tasks
+     * left over from a restart and tasks queued on other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.complaints.pipeline.poll-interval-ms:1000}")
+    public void pollDueTasks() {
+        try {
+            pendingTasks.set(taskRepository.countPending());
+            for (Long taskId : taskRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize))) {
+                dispatch(taskId);
+            }
+        } catch (Exception e) {
+            logger.error("Polling complaint pipeline tasks failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void dispatch(Long taskId) {
+        if (!inFlight.add(taskId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(taskId);
+                } finally {
+                    inFlight.remove(taskId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Workers are saturated; the poller retries it later
+            inFlight.remove(taskId);
+        }
+    }
+
+    private void process(Long taskId) {
+        ComplaintPipelineTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null || task.getStatus() != ComplaintPipelineTask.Status.PENDING
+                || task.getAvailableAt().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        Stage stage = task.getStage();
+        Duration waited = Duration.between(task.getAvailableAt(), LocalDateTime.now());
+        long start = System.nanoTime();
+        try {
+            // The remote lookup runs before the transaction so it holds no connection or lock
+            String address = stage == Stage.GEOCODE ? resolveAddress(task.getComplaintId()) : null;
+
+            Boolean processed = transactionTemplate.execute(status -> taskRepository.lockPending(taskId)
+                    .map(locked -> {
+                        if (runStage(locked, address)) {
+                            enqueueNext(locked);
+                        }
+                        taskRepository.delete(locked);
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(processed)) {
+                waitTimer(stage).record(waited);
+                stageTimer(stage, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } catch (Exception e) {
+            stageTimer(stage, "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fail(taskId, e);
+        }
+    }
+
+    /**
+     * Runs a stage's work
+     *
+     * @return false when the complaint no longer exists and the pipeline ends
+     */
+    private boolean runStage(ComplaintPipelineTask task, String address) {
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(task.getComplaintId())
+                .orElse(null);
+        if (complaint == null) {
+            if (task.getStage() == Stage.IMAGES) {
+                deleteSpooled(readStagedImages(task.getPayload()));
+            }
+            return false;
+        }
+
+        switch (task.getStage()) {
+            case IMAGES -> storeImages(complaint, readStagedImages(task.getPayload()));
+            case GEOCODE -> {
+                if (address != null) {
+                    complaint.setAddress(address);
+                }
+            }
+            case DUPLICATE_CHECK -> {
+                Complaint original = duplicateComplaintService.checkForDuplicate(complaint);
+                if (original != null) {
+                    duplicateComplaintService.markAsDuplicate(complaint, original);
+                }
+            }
+            case NOTIFY -> notifyCreated(complaint);
+        }
+        return true;
+    }
+
+    private void storeImages(Complaint complaint, List<StagedImage> staged) {
+        for (StagedImage image : staged) {
+            byte[] data = fileStorageService.readFile(image.getFile());
+            if (data == null) {
+                logger.warn("Spooled image {} of complaint {} is missing", image.getFile(),
+                        complaint.getComplaintId());
+                continue;
+            }
+            ComplaintImage complaintImage = new ComplaintImage();
+            complaintImage.setComplaint(complaint);
+            complaintImage.setFilename(image.getFilename());
+            complaintImage.setContentType(image.getContentType());
+            complaintImage.setData(data);
+            complaintImageRepository.save(complaintImage);
+        }
+        deleteSpooled(staged);
+    }
+
+    private String resolveAddress(Long complaintId) {
+        return complaintRepository.findById(complaintId)
+                .filter(c -> c.getAddress() == null || c.getAddress().isBlank())
+                .map(c -> geocodingService.reverseGeocode(c.getLocationLat(), c.getLocationLng()))
+                .orElse(null);
+    }
+
+    private void notifyCreated(Complaint complaint) {
+        realtimeMessagingService.complaintCreated(ComplaintDTO.from(complaint));
+        // Address and duplicate flag may have changed since the submission
+        recentComplaintsCache.invalidate();
+
+        // Duplicates were already announced by the duplicate check
+        if (!Boolean.TRUE.equals(complaint.getIsDuplicate())) {
+            List<Notification> notifications = new ArrayList<>();
+            notifications.add(NotificationService.newNotification(
+                    complaint.getUser(),
+                    String.format("Your complaint '%s' has been received.", complaint.getTitle()),
+                    NotificationType.INFO,
+                    complaint));
+            String adminMessage = String.format("New complaint submitted: '%s' (ID: %d)",
+                    complaint.getTitle(), complaint.getComplaintId());
+            for (User admin : userRepository.findByRole(User.Role.ADMIN)) {
+                notifications.add(NotificationService.newNotification(admin, adminMessage,
+                        NotificationType.INFO, complaint));
+            }
+            notificationService.createNotifications(notifications);
+        }
+
+        LocalDateTime createdAt = complaint.getCreatedAt();
+        TransactionUtils.afterCommit(() -> completionTimer.record(Duration.between(createdAt, LocalDateTime.now())));
+    }
+
+    private void fail(Long taskId, Exception cause) {
+        logger.warn("Complaint pipeline task {} failed: {}", taskId, cause.getMessage());
+        try {
+            transactionTemplate.executeWithoutResult(status -> taskRepository.lockPending(taskId).ifPresent(task -> {
+                task.setAttempts(task.getAttempts() + 1);
+                String message = String.valueOf(cause.getMessage());
+                task.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                if (task.getAttempts() >= maxAttempts) {
+                    // Kept for inspection; the later stages still run
+                    task.setStatus(ComplaintPipelineTask.Status.FAILED);
+                    if (task.getStage() == Stage.IMAGES) {
+                        discardSpooled(task);
+                    }
+                    enqueueNext(task);
+                    TransactionUtils.afterCommit(failedTasks::increment);
+                    logger.error("Giving up on {} stage of complaint {} after {} attempts", task.getStage(),
+                            task.getComplaintId(), task.getAttempts());
+                } else {
+                    long backoffMs = retryBackoffMs << Math.min(task.getAttempts() - 1, 10);
+                    task.setAvailableAt(LocalDateTime.now().plus(backoffMs, ChronoUnit.MILLIS));
+                }
+            }));
+        } catch (Exception e) {
+            logger.error("Could not record failure of pipeline task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    private void enqueueNext(ComplaintPipelineTask task) {
+        Stage next = task.getStage().next();
+        if (next != null) {
+            ComplaintPipelineTask saved = taskRepository.save(newTask(task.getComplaintId(), next, null));
+            TransactionUtils.afterCommit(() -> dispatch(saved.getId()));
+        }
+    }
+
+    private static ComplaintPipelineTask newTask(Long complaintId, Stage stage, String payload) {
+        ComplaintPipelineTask task = new ComplaintPipelineTask();
+        task.setComplaintId(complaintId);
+        task.setStage(stage);
+        task.setPayload(payload);
+        return task;
+    }
+
+    private List<StagedImage> readStagedImages(String payload) {
+        if (payload == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(payload, STAGED_IMAGES);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable image payload");
+        }
+    }
+
+    private void discardSpooled(ComplaintPipelineTask task) {
+        try {
+            deleteSpooled(readStagedImages(task.getPayload()));
+        } catch (RuntimeException e) {
+            // The payload itself may be why the stage failed
+            logger.warn("Could not read spooled images of complaint {}: {}", task.getComplaintId(), e.getMessage());
+        }
+    }
+
+    private void deleteSpooled(List<StagedImage> staged) {
+        TransactionUtils.afterCommit(() -> deleteFiles(staged));
+    }
+
+    private void deleteFiles(List<StagedImage> staged) {
+        for (StagedImage image : staged) {
+            try {
+                fileStorageService.deleteFile(image.getFile());
+            } catch (Exception e) {
+                logger.warn("Could not delete spooled image {}: {}", image.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    private Timer stageTimer(Stage stage, String outcome) {
+        return stageTimers.computeIfAbsent(stage + ":" + outcome, k -> Timer.builder("complaints.pipeline.stage.duration")
+                .tag("stage", stage.name().toLowerCase())
+                .tag("outcome", outcome)
+                .description("Time spent running a pipeline stage")
+                .register(meterRegistry));
+    }
+
+    private Timer waitTimer(Stage stage) {
+        return stageTimers.computeIfAbsent(stage + ":wait", k -> Timer.builder("complaints.pipeline.stage.wait")
+                .tag("stage", stage.name().toLowerCase())
+                .description("Time a pipeline task waited between becoming due and running")
+                .register(meterRegistry));
+    }
+
+    /**
+     * Upload spooled to disk, waiting for the IMAGES stage
+     */
+    public static class StagedImage {
+
+        private String file;
+        private String filename;
+        private String contentType;
+
+        public StagedImage() {
+        }
+
+        public StagedImage(String file, String filename, String contentType) {
+            this.file = file;
+            this.filename = filename;
+            this.contentType = contentType;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public void setFilename(String filename) {
+            this.filename = filename;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+    }
+}
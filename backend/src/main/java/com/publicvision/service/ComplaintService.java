@@ -4,26 +4,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.dto.CursorPageDTO;
 import com.publicvision.dto.ComplaintRequest;
 import com.publicvision.dto.ComplaintMapDTO;
 import com.publicvision.dto.FeedbackRequest;
+import com.publicvision.dto.ResolutionStatsDTO;
 import com.publicvision.dto.StatisticsDTO;
 import com.publicvision.dto.UpdateStatusRequest;
 import com.publicvision.entity.Complaint;
 import com.publicvision.entity.ComplaintUpdate;
 import com.publicvision.entity.User;
 import com.publicvision.repository.ComplaintRepository;
-import com.publicvision.repository.ComplaintImageRepository;
-import com.publicvision.entity.ComplaintImage;
 import com.publicvision.repository.ComplaintUpdateRepository;
 import com.publicvision.repository.UserRepository;
+import com.publicvision.security.UserPrincipal;
+import com.publicvision.util.PageCursor;
+import com.publicvision.util.SecurityUtils;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -33,6 +37,8 @@ import java.util.Map;
 @Service
 public class ComplaintService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private ComplaintRepository complaintRepository;
 
@@ -43,14 +49,27 @@ public class ComplaintService {
     private UserRepository userRepository;
 
     @Autowired
-    private ComplaintImageRepository complaintImageRepository;
+    private ResolutionTimeService resolutionTimeService;
+
+    @Autowired
+    private StatisticsStreamService statisticsStreamService;
+
+    @Autowired
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @Autowired
+    private ComplaintEventPublisher complaintEventPublisher;
 
-    // Notifications currently not implemented
+    @Autowired
+    private ComplaintPipelineService complaintPipelineService;
+
+    /**
+     * Accepts a complaint: saves it with its initial update and queues the
+     * post-submission pipeline, see {@link ComplaintPipelineService}
+     */
     @Transactional
     public ComplaintDTO createComplaint(ComplaintRequest complaintRequest, List<MultipartFile> images) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser();
 
         Complaint complaint = new Complaint();
         complaint.setTitle(complaintRequest.getTitle());
@@ -63,24 +82,9 @@ public class ComplaintService {
         // Rely on entity defaults for status, timestamps, dueDate, flags
         Complaint saved = complaintRepository.save(complaint);
 
-        // Persist images if provided
-        if (images != null && !images.isEmpty()) {
-            for (MultipartFile mf : images) {
-                if (mf.isEmpty()) {
-                    continue;
-                }
-                try {
-                    ComplaintImage ci = new ComplaintImage();
-                    ci.setComplaint(saved);
-                    ci.setFilename(mf.getOriginalFilename());
-                    ci.setContentType(mf.getContentType());
-                    ci.setData(mf.getBytes());
-                    complaintImageRepository.save(ci);
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to store image: " + mf.getOriginalFilename());
-                }
-            }
-        }
+        // Images, geocoding, duplicate check and notifications run in the background pipeline
+        complaintPipelineService.enqueue(saved, images);
+
         // Minimal initial update record
         ComplaintUpdate update = new ComplaintUpdate();
         update.setComplaint(saved);
@@ -88,16 +92,15 @@ public class ComplaintService {
         update.setComment("Created");
         update.setUpdatedBy(user);
         complaintUpdateRepository.save(update);
+        complaintEventPublisher.created(saved, user.getUserId());
         return mapToDTO(saved);
     }
 
     @Transactional
     public ComplaintDTO updateComplaintStatus(Long id, UpdateStatusRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser();
 
-        Complaint complaint = complaintRepository.findById(id)
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(id)
                 .orElseThrow(() -> new RuntimeException("Complaint not found with id: " + id));
 
         Complaint.ComplaintStatus newStatus;
@@ -106,15 +109,20 @@ public class ComplaintService {
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid status value");
         }
+        Complaint.ComplaintStatus oldStatus = complaint.getStatus();
         complaint.setStatus(newStatus);
         Complaint updated = complaintRepository.save(complaint);
+        resolutionTimeService.onStatusChange(updated, oldStatus, newStatus);
+        complaintEventPublisher.statusChanged(updated, oldStatus, newStatus, user.getUserId());
         ComplaintUpdate update = new ComplaintUpdate();
         update.setComplaint(updated);
         update.setStatus(newStatus);
         update.setComment(request.getComment());
         update.setUpdatedBy(user);
         complaintUpdateRepository.save(update);
-        return mapToDTO(updated);
+        ComplaintDTO dto = mapToDTO(updated);
+        realtimeMessagingService.complaintStatusChanged(dto, updated.getUser().getEmail(), oldStatus);
+        return dto;
     }
 
     public Page<ComplaintDTO> getAllComplaints(int page, int size, String sortBy, String direction) {
@@ -122,24 +130,119 @@ public class ComplaintService {
                 ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Complaint> complaints = complaintRepository.findAll(pageable);
-
-        return complaints.map(this::mapToDTO);
+        return complaintRepository.findAllAsDTO(pageable);
     }
 
     public Page<ComplaintDTO> getComplaintsByUser(int page, int size) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser();
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return complaintRepository.findByUserAsDTO(user, pageable);
+    }
+
+    /**
+     * Slice variant of {@link #getAllComplaints} for listings that never show
+     * a total: fetches one extra row to compute hasNext instead of counting
+     */
+    public Slice<ComplaintDTO> getAllComplaintsSlice(int page, int size, String sortBy, String direction) {
+        Sort sort = direction.equalsIgnoreCase("desc")
+                ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        return complaintRepository.findSliceAsDTO(PageRequest.of(page, size, sort));
+    }
+
+    /**
+     * Slice variant of {@link #getComplaintsByUser}
+     */
+    public Slice<ComplaintDTO> getComplaintsByUserSlice(int page, int size) {
+        User user = currentUser();
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return complaintRepository.findSliceByUserAsDTO(user, pageable);
+    }
+
+    /**
+     * Slice variant of {@link #getComplaintsByCategory}
+     */
+    public Slice<ComplaintDTO> getComplaintsByCategorySlice(String category, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return complaintRepository.findSliceByCategoryAsDTO(category, pageable);
+    }
+
+    /**
+     * Slice variant of {@link #getComplaintsByStatus}
+     */
+    public Slice<ComplaintDTO> getComplaintsByStatusSlice(String status, int page, int size) {
+        Complaint.ComplaintStatus statusEnum;
+        try {
+            statusEnum = Complaint.ComplaintStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status value");
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Complaint> complaints = complaintRepository.findByUser(user, pageable);
+        return complaintRepository.findSliceByStatusAsDTO(statusEnum, pageable);
+    }
 
-        return complaints.map(this::mapToDTO);
+    /**
+     * Approximate number of complaints, optionally filtered by status or
+     * category, for UIs that show a total next to a slice listing. Read from
+     * the in-memory statistics counters, so it runs no COUNT query.
+     *
+     * @param status Status filter (optional)
+     * @param category Category filter (optional)
+     * @return Approximate complaint count
+     */
+    public long getApproximateComplaintCount(String status, String category) {
+        boolean byStatus = status != null && !status.isBlank();
+        boolean byCategory = category != null && !category.isBlank();
+        if (byStatus && byCategory) {
+            throw new RuntimeException("Filter by either status or category");
+        }
+        if (byStatus) {
+            try {
+                return statisticsStreamService.getCountByStatus(Complaint.ComplaintStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid status value");
+            }
+        }
+        if (byCategory) {
+            return statisticsStreamService.getCountByCategory(category);
+        }
+        return statisticsStreamService.getTotalCount();
+    }
+
+    /**
+     * Cursor-paginated variant of {@link #getAllComplaints}, newest first.
+     * Uses keyset paging on (createdAt, id) and runs no COUNT query.
+     *
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size (capped at 100)
+     * @return Page with the cursor of the next page
+     */
+    public CursorPageDTO<ComplaintDTO> getAllComplaintsByCursor(String cursor, int size) {
+        PageCursor position = cursorPosition(cursor);
+        int limit = cursorPageSize(size);
+        List<ComplaintDTO> rows = complaintRepository.findPageAfterCursor(
+                position.getTimestamp(), position.getId(), PageRequest.of(0, limit + 1));
+        return CursorPageDTO.fromRows(rows, limit, ComplaintDTO::getCreatedAt, ComplaintDTO::getComplaintId, dto -> dto);
+    }
+
+    /**
+     * Cursor-paginated variant of {@link #getComplaintsByUser}
+     */
+    public CursorPageDTO<ComplaintDTO> getComplaintsByUserByCursor(String cursor, int size) {
+        User user = currentUser();
+
+        PageCursor position = cursorPosition(cursor);
+        int limit = cursorPageSize(size);
+        List<ComplaintDTO> rows = complaintRepository.findPageByUserAfterCursor(
+                user, position.getTimestamp(), position.getId(), PageRequest.of(0, limit + 1));
+        return CursorPageDTO.fromRows(rows, limit, ComplaintDTO::getCreatedAt, ComplaintDTO::getComplaintId, dto -> dto);
     }
 
     public ComplaintDTO getComplaintById(Long id) {
-        Complaint complaint = complaintRepository.findById(id)
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(id)
                 .orElseThrow(() -> new RuntimeException("Complaint not found with id: " + id));
 
         return mapToDTO(complaint);
@@ -152,9 +255,7 @@ public class ComplaintService {
 
     public Page<ComplaintDTO> getComplaintsByCategory(String category, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Complaint> complaints = complaintRepository.findByCategory(category, pageable);
-
-        return complaints.map(this::mapToDTO);
+        return complaintRepository.findByCategoryAsDTO(category, pageable);
     }
 
     public Page<ComplaintDTO> getComplaintsByStatus(String status, int page, int size) {
@@ -166,9 +267,42 @@ public class ComplaintService {
         }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Complaint> complaints = complaintRepository.findByStatus(statusEnum, pageable);
+        return complaintRepository.findByStatusAsDTO(statusEnum, pageable);
+    }
 
-        return complaints.map(this::mapToDTO);
+    /**
+     * Cursor-paginated variant of {@link #getComplaintsByStatus}
+     */
+    public CursorPageDTO<ComplaintDTO> getComplaintsByStatusByCursor(String status, String cursor, int size) {
+        Complaint.ComplaintStatus statusEnum;
+        try {
+            statusEnum = Complaint.ComplaintStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status value");
+        }
+
+        PageCursor position = cursorPosition(cursor);
+        int limit = cursorPageSize(size);
+        List<ComplaintDTO> rows = complaintRepository.findPageByStatusAfterCursor(
+                statusEnum, position.getTimestamp(), position.getId(), PageRequest.of(0, limit + 1));
+        return CursorPageDTO.fromRows(rows, limit, ComplaintDTO::getCreatedAt, ComplaintDTO::getComplaintId, dto -> dto);
+    }
+
+    /**
+     * Reference to the current user built from the request principal; no
+     * query runs unless a field other than the id is read
+     */
+    private User currentUser() {
+        return userRepository.getReferenceById(SecurityUtils.getCurrentUser().getUserId());
+    }
+
+    private static PageCursor cursorPosition(String cursor) {
+        PageCursor position = PageCursor.decode(cursor);
+        return position != null ? position : PageCursor.first();
+    }
+
+    private static int cursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
     }
 
     public StatisticsDTO getStatistics() {
@@ -194,7 +328,8 @@ public class ComplaintService {
         dto.setPendingComplaints(submitted); // mapping submitted -> pending semantic
         dto.setInProgressComplaints(inProgress);
         dto.setResolvedComplaints(resolved);
-        dto.setRejectedComplaints(escalated); // using escalated slot (no rejected concept yet)
+        dto.setEscalatedComplaints(escalated);
+        dto.setRejectedComplaints(0L); // no rejected status yet
         dto.setComplaintsByCategory(complaintsByCategory);
 
         // Status distribution map
@@ -222,14 +357,30 @@ public class ComplaintService {
         return dto;
     }
 
+    /**
+     * Gets resolution and first-response time percentiles per category and staff
+     *
+     * @return Resolution statistics
+     */
+    public ResolutionStatsDTO getResolutionStatistics() {
+        return resolutionTimeService.getResolutionStats();
+    }
+
+    /**
+     * Opens a statistics stream that sends a snapshot followed by deltas
+     *
+     * @return SSE emitter for the subscriber
+     */
+    public SseEmitter streamStatistics() {
+        return statisticsStreamService.subscribe(SecurityUtils.getCurrentUser().getUserId());
+    }
+
     // Notification helpers removed due to entity mismatch (current Notification entity lacks these fields)
     @Transactional
     public ComplaintDTO addComment(Long complaintId, String comment) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser();
 
-        Complaint complaint = complaintRepository.findById(complaintId)
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(complaintId)
                 .orElseThrow(() -> new RuntimeException("Complaint not found with id: " + complaintId));
 
         // Create complaint update entry
@@ -304,8 +455,7 @@ public class ComplaintService {
      */
     public Page<ComplaintDTO> getEscalatedComplaints(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Complaint> complaints = complaintRepository.findByStatus(Complaint.ComplaintStatus.ESCALATED, pageable);
-        return complaints.map(ComplaintDTO::from);
+        return complaintRepository.findByStatusAsDTO(Complaint.ComplaintStatus.ESCALATED, pageable);
     }
 
     /**
@@ -318,12 +468,10 @@ public class ComplaintService {
     @Transactional
     public ComplaintDTO addFeedback(Long complaintId, FeedbackRequest feedbackRequest) {
         // Get current user
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUser();
 
         // Get complaint
-        Complaint complaint = complaintRepository.findById(complaintId)
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(complaintId)
                 .orElseThrow(() -> new RuntimeException("Complaint not found"));
 
         // Check if user owns the complaint
@@ -361,13 +509,12 @@ public class ComplaintService {
      */
     @Transactional
     public ComplaintDTO reopenComplaint(Long complaintId, String reopenReason) {
-        // Get current user
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Get current user; the reference is never initialized, the principal carries the email
+        UserPrincipal principal = SecurityUtils.getCurrentUser();
+        User user = userRepository.getReferenceById(principal.getUserId());
 
         // Get complaint
-        Complaint complaint = complaintRepository.findById(complaintId)
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(complaintId)
                 .orElseThrow(() -> new RuntimeException("Complaint not found"));
 
         // Check if user owns the complaint
@@ -386,6 +533,9 @@ public class ComplaintService {
         }
 
         // Set complaint to reopened
+        Complaint.ComplaintStatus oldStatus = complaint.getStatus();
+        complaintEventPublisher.statusChanged(complaint, oldStatus, Complaint.ComplaintStatus.IN_PROGRESS,
+                user.getUserId());
         complaint.setStatus(Complaint.ComplaintStatus.IN_PROGRESS);
         complaint.setReopened(true);
         complaint.setReopenReason(reopenReason);
@@ -393,17 +543,20 @@ public class ComplaintService {
 
         // Save complaint
         complaintRepository.save(complaint);
+        resolutionTimeService.onStatusChange(complaint, oldStatus, Complaint.ComplaintStatus.IN_PROGRESS);
 
         // Add complaint update
         ComplaintUpdate update = new ComplaintUpdate();
         update.setComplaint(complaint);
+        update.setStatus(Complaint.ComplaintStatus.IN_PROGRESS);
         update.setUpdatedBy(user);
         update.setComment("Complaint reopened: " + reopenReason);
         complaintUpdateRepository.save(update);
 
-        // Notify staff/admin about the reopened complaint
-        // Notification omitted
-        return ComplaintDTO.from(complaint);
+        // Assigned staff are notified from the STATUS_CHANGED event
+        ComplaintDTO dto = ComplaintDTO.from(complaint);
+        realtimeMessagingService.complaintStatusChanged(dto, principal.getEmail(), oldStatus);
+        return dto;
     }
 
     /**
@@ -417,9 +570,8 @@ public class ComplaintService {
      */
     public Page<ComplaintDTO> getComplaintsByRatingRange(Integer minRating, Integer maxRating, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Complaint> complaints = complaintRepository.findByRatingBetweenAndStatusOrderByCreatedAtDesc(
+        return complaintRepository.findByRatingBetweenAndStatusAsDTO(
                 minRating, maxRating, Complaint.ComplaintStatus.RESOLVED, pageable);
-        return complaints.map(ComplaintDTO::from);
     }
 
     /**
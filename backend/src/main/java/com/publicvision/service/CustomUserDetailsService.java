@@ -1,7 +1,8 @@
 package com.publicvision.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -9,29 +10,97 @@ import org.springframework.stereotype.Service;
 
 import com.publicvision.entity.User;
 import com.publicvision.repository.UserRepository;
+import com.publicvision.security.UserPrincipal;
 
-import java.util.Collections;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Loads users for authentication through a short-TTL principal cache, so an
+ * authenticated request does not query the users table. Entries are evicted
+ * when a user's profile, role or password changes, on every node. A load
+ * that overlaps an eviction is not cached, so it cannot put back the
+ * authorities the eviction removed.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final String EVICT_TOPIC = "cache.user";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${app.security.user-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction; principals loaded before the bump are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void subscribeEvictions() {
+        clusterEventBus.subscribe(EVICT_TOPIC, String.class, email -> {
+            generation.incrementAndGet();
+            principals.remove(email);
+        });
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CachedPrincipal cached = principals.get(email);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.principal;
+        }
+
+        long loadGeneration = generation.get();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+        UserPrincipal principal = UserPrincipal.from(user);
+        CachedPrincipal loaded = new CachedPrincipal(principal, System.currentTimeMillis() + ttlMs);
+        // Checked under the key's lock, so an eviction cannot slip between the check and the put
+        principals.compute(email, (k, existing) -> generation.get() == loadGeneration ? loaded : existing);
+        return principal;
     }
 
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
+
+    /**
+     * Drops the cached principal on every node once the current transaction
+     * commits, so the next request reloads the changed user
+     *
+     * @param email Email of the changed user
+     */
+    public void evict(String email) {
+        clusterEventBus.publish(EVICT_TOPIC, email);
+    }
+
+    /**
+     * Drops expired principals
+     */
+    @Scheduled(fixedDelayString = "${app.security.user-cache.evict-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        principals.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private static class CachedPrincipal {
+
+        private final UserPrincipal principal;
+        private final long expiresAt;
+
+        CachedPrincipal(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -17,6 +17,7 @@ import com.publicvision.repository.UserRepository;
 import com.publicvision.util.GeoUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,6 +45,9 @@ public class DuplicateComplaintService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ComplaintEventPublisher complaintEventPublisher;
+
     /**
      * Check if a complaint is a duplicate based on: - Same category - Location
      * within specified distance threshold - Created within specified time
@@ -61,6 +65,10 @@ public class DuplicateComplaintService {
                 complaint.getLocationLng(),
                 distanceThresholdKm,
                 cutoffDate);
+        // A saved complaint matches itself; only earlier complaints can be its original
+        if (complaint.getComplaintId() != null) {
+            potentialDuplicates.removeIf(c -> c.getComplaintId() >= complaint.getComplaintId());
+        }
 
         if (potentialDuplicates.isEmpty()) {
             logger.debug("No potential duplicates found for complaint");
@@ -93,14 +101,15 @@ public class DuplicateComplaintService {
                 "Your complaint '%s' has been marked as a duplicate of an existing complaint.",
                 complaint.getTitle());
 
-        notificationService.createNotification(
+        List<Notification> notifications = new ArrayList<>();
+        notifications.add(NotificationService.newNotification(
                 complaint.getUser(),
                 message,
                 NotificationType.STATUS_CHANGE,
-                complaint);
+                complaint));
 
         // Notify admins about the duplicate
-        List<User> adminUsers = userRepository.findByRole("ADMIN");
+        List<User> adminUsers = userRepository.findByRole(User.Role.ADMIN);
         String adminMessage = String.format(
                 "New duplicate complaint detected: '%s' (ID: %d) is a duplicate of '%s' (ID: %d)",
                 complaint.getTitle(),
@@ -109,12 +118,13 @@ public class DuplicateComplaintService {
                 originalComplaint.getComplaintId());
 
         for (User admin : adminUsers) {
-            notificationService.createNotification(
+            notifications.add(NotificationService.newNotification(
                     admin,
                     adminMessage,
                     NotificationType.INFO,
-                    complaint);
+                    complaint));
         }
+        notificationService.createNotifications(notifications);
 
         return savedComplaint;
     }
@@ -162,17 +172,8 @@ public class DuplicateComplaintService {
                     duplicateComplaint.setIsDuplicate(true);
                     duplicateComplaint.setOriginalComplaint(originalComplaint);
                     complaintRepository.save(duplicateComplaint);
-
-                    // Notify the user about their complaint being merged
-                    String message = String.format(
-                            "Your complaint '%s' has been merged with another complaint.",
-                            duplicateComplaint.getTitle());
-
-                    notificationService.createNotification(
-                            duplicateComplaint.getUser(),
-                            message,
-                            NotificationType.STATUS_CHANGE,
-                            duplicateComplaint);
+                    // The owner is notified from the MERGED event
+                    complaintEventPublisher.merged(duplicateComplaint, originalComplaint);
                 }
             }
         }
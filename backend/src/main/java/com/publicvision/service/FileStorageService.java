@@ -58,6 +58,43 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Copies an upload to a uniquely named file for later processing,
+     * keeping the request thread free of database BLOB writes
+     *
+     * @param file Uploaded file
+     * @return Name of the spooled file
+     */
+    public String spoolFile(MultipartFile file) {
+        String spoolName = "pending_" + UUID.randomUUID();
+        try {
+            Files.copy(file.getInputStream(), this.fileStorageLocation.resolve(spoolName));
+            return spoolName;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Reads a stored file, or returns null if it no longer exists
+     */
+    public byte[] readFile(String fileName) {
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        try {
+            return Files.exists(filePath) ? Files.readAllBytes(filePath) : null;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read file " + fileName, ex);
+        }
+    }
+
+    public void deleteFile(String fileName) {
+        try {
+            Files.deleteIfExists(this.fileStorageLocation.resolve(fileName).normalize());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not delete file " + fileName, ex);
+        }
+    }
+
     public Resource loadFileAsResource(String fileName) {
         try {
             Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
@@ -0,0 +1,328 @@
+package com.publicvision.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.publicvision.entity.IdempotencyRecord;
+import com.publicvision.exception.TooManyRequestsException;
+import com.publicvision.repository.IdempotencyRecordRepository;
+
+/**
+ * Runs a request at most once per (user, Idempotency-Key). The first request
+ * executes and its result is stored with the same transaction as the
+ * request's own writes; repeats get the stored result back. A duplicate that
+ * arrives while the first is still running waits for it on this node, and
+ * the unique key in idempotency_keys settles races between nodes.
+ *
+ * Completed results are kept in a bounded in-memory map and in the table
+ * until the TTL passes. Failed requests are not stored, so a retry can
+ * succeed; a duplicate that was waiting on a failed request runs it itself.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    // Returned by await when the original request failed
+    private static final Object FAILED = new Object();
+
+    private static final String SWEEP_JOB = "idempotency-sweep";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_keys WHERE expires_at < :now LIMIT :limit";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.idempotency.sweep-interval-ms:3600000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.idempotency.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // "userId:key" -> in-flight or completed request
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executes the action once for the key, or returns the result of the
+     * earlier execution
+     *
+     * @param userId Caller; keys are scoped per user
+     * @param key Client-supplied Idempotency-Key
+     * @param requestHash Fingerprint of the request, see {@link #fingerprint}
+     * @param type Result type, used to read stored results back
+     * @param action The request's work; runs in a transaction
+     * @return The result and whether it was replayed
+     */
+    public <T> Result<T> execute(Long userId, String key, String requestHash, Class<T> type, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storeKey = userId + ":" + key;
+        Entry mine = new Entry(requestHash);
+        Entry existing;
+        while (true) {
+            while ((existing = entries.putIfAbsent(storeKey, mine)) != null && existing.isExpired()) {
+                entries.remove(storeKey, existing);
+            }
+            if (existing == null) {
+                break;
+            }
+            checkHash(existing.requestHash, requestHash);
+            Object result = await(existing);
+            if (result != FAILED) {
+                return new Result<>(type.cast(result), true);
+            }
+            // The original failed and gave the key up; this request runs instead
+        }
+
+        try {
+            // Stored by another node or before a restart
+            Optional<T> stored = findStored(userId, key, requestHash, type);
+            if (stored.isPresent()) {
+                complete(storeKey, mine, stored.get());
+                return new Result<>(stored.get(), true);
+            }
+
+            T result;
+            try {
+                result = transactionTemplate.execute(status -> {
+                    T value = action.get();
+                    idempotencyRecordRepository.save(toRecord(userId, key, requestHash, value));
+                    return value;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node committed the same key first; its result wins
+                result = findStored(userId, key, requestHash, type).orElseThrow(() -> e);
+                complete(storeKey, mine, result);
+                return new Result<>(result, true);
+            }
+            complete(storeKey, mine, result);
+            return new Result<>(result, false);
+        } catch (RuntimeException e) {
+            entries.remove(storeKey, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Hashes the parts that identify a request's content
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Hashes streamed content, e.g. an uploaded file, for use as a
+     * fingerprint part
+     *
+     * @param content Content to hash; read to the end but not closed
+     * @return Hex SHA-256 of the content
+     */
+    public static String contentHash(InputStream content) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Drops expired results from memory and deletes them from the table in
+     * batches; the table is swept by one node per interval
+     */
+    @Scheduled(initialDelayString = "${app.idempotency.sweep-interval-ms:3600000}",
+            fixedDelayString = "${app.idempotency.sweep-interval-ms:3600000}")
+    public void sweepExpired() {
+        entries.values().removeIf(Entry::isExpired);
+        jobLeaseService.runExclusive(SWEEP_JOB, sweepIntervalMs, this::deleteExpired);
+    }
+
+    private void deleteExpired() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", LocalDateTime.now())
+                .addValue("limit", sweepBatchSize);
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED, params);
+                total += deleted;
+            } while (deleted == sweepBatchSize);
+        } catch (Exception e) {
+            logger.error("Sweeping expired idempotency keys failed", e);
+        }
+        if (total > 0) {
+            logger.info("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    private void complete(String storeKey, Entry entry, Object result) {
+        entry.expiresAt = System.currentTimeMillis() + ttlMs;
+        entry.future.complete(result);
+        // Beyond the bound, repeats are answered from the table instead
+        if (entries.size() > maxEntries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    /**
+     * Waits for the in-flight original request
+     *
+     * @return Its result, or {@link #FAILED} if it failed
+     */
+    private Object await(Entry entry) {
+        try {
+            return entry.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TooManyRequestsException("A request with this Idempotency-Key is still in progress", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            return FAILED;
+        }
+    }
+
+    private <T> Optional<T> findStored(Long userId, String key, String requestHash, Class<T> type) {
+        return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(r -> {
+                    checkHash(r.getRequestHash(), requestHash);
+                    try {
+                        return objectMapper.readValue(r.getResponseBody(), type);
+                    } catch (JsonProcessingException e) {
+                        throw new RuntimeException("Stored idempotent response could not be read");
+                    }
+                });
+    }
+
+    private IdempotencyRecord toRecord(Long userId, String key, String requestHash, Object value) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setExpiresAt(LocalDateTime.now().plus(ttlMs, ChronoUnit.MILLIS));
+        try {
+            record.setResponseBody(objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Response could not be stored for idempotent replay");
+        }
+        return record;
+    }
+
+    private static void checkHash(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new RuntimeException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    /**
+     * Result of {@link #execute}
+     */
+    public static class Result<T> {
+
+        private final T value;
+        private final boolean replayed;
+
+        Result(T value, boolean replayed) {
+            this.value = value;
+            this.replayed = replayed;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static class Entry {
+
+        private final String requestHash;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        // Set once the request completes; in-flight entries never expire
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        boolean isExpired() {
+            return expiresAt < System.currentTimeMillis();
+        }
+    }
+}
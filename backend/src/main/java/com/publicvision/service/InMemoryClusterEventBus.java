@@ -0,0 +1,20 @@
+package com.publicvision.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.publicvision.util.TransactionUtils;
+
+/**
+ * Event bus for a single instance: events go straight to this node's
+ * handlers after commit
+ */
+@Service
+@ConditionalOnProperty(name = "app.cluster.event-bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryClusterEventBus extends AbstractClusterEventBus {
+
+    @Override
+    public void publish(String topic, Object payload) {
+        TransactionUtils.afterCommit(() -> deliverLocal(topic, payload));
+    }
+}
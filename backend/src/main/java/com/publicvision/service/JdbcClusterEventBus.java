@@ -0,0 +1,312 @@
+package com.publicvision.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.publicvision.config.NodeIdentity;
+import com.publicvision.entity.ClusterEvent;
+import com.publicvision.entity.ClusterNode;
+import com.publicvision.repository.ClusterEventRepository;
+import com.publicvision.repository.ClusterNodeRepository;
+import com.publicvision.util.TransactionUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Event bus shared through the database, for several instances without a
+ * message broker. Events are inserted into cluster_events in the
+ * publisher's transaction; every node polls the table with its own cursor,
+ * starting from the newest event at startup, and skips the events it
+ * published itself (those were delivered locally after commit). Cursors are
+ * recorded in cluster_nodes, and events every live node has read are swept.
+ *
+ * Ids are assigned at insert, so a long transaction can commit its event
+ * after higher ids are already visible. A poll delivers what it finds and
+ * remembers every id it skipped over, with the time this node first saw it
+ * missing; missing ids are looked up again on each poll. An id still missing
+ * after the gap timeout is given up (usually a rolled-back insert), but is
+ * re-checked for a while longer so a very late commit is still delivered.
+ * Events can therefore arrive out of id order. The recorded cursor stays
+ * below the lowest id still being waited for, so those rows are not swept.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cluster.event-bus", havingValue = "jdbc")
+public class JdbcClusterEventBus extends AbstractClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcClusterEventBus.class);
+
+    private static final String SWEEP_JOB = "cluster-events-sweep";
+
+    private static final String DELETE_READ = "DELETE FROM cluster_events "
+            + "WHERE id <= :maxId OR created_at < :cutoff LIMIT :limit";
+
+    private static final String DELETE_STALE_NODES = "DELETE FROM cluster_nodes WHERE last_seen_at < :before";
+
+    @Autowired
+    private ClusterEventRepository clusterEventRepository;
+
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.cluster.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cluster.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.cluster.gap-recheck-ms:60000}")
+    private long gapRecheckMs;
+
+    @Value("${app.cluster.max-tracked-gaps:1000}")
+    private int maxTrackedGaps;
+
+    @Value("${app.cluster.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${app.cluster.node-timeout-ms:60000}")
+    private long nodeTimeoutMs;
+
+    @Value("${app.cluster.heartbeat-interval-ms:10000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${app.cluster.sweep-interval-ms:60000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.cluster.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+
+    private final String nodeId;
+    private final Counter publishedEvents;
+    private final Counter receivedEvents;
+    private final Counter skippedGaps;
+    private final Counter recoveredGaps;
+
+    // Highest event id read by this node; -1 until the first poll
+    private long highestSeen = -1;
+    // Ids below highestSeen not seen yet -> when this node first found them missing
+    private final TreeMap<Long, Long> missing = new TreeMap<>();
+    // Ids given up after the gap timeout -> when they were given up; still re-checked
+    private final TreeMap<Long, Long> skipped = new TreeMap<>();
+    private long lastSkippedCheck;
+    private long recordedCursor = -1;
+    private long lastHeartbeat;
+
+    @Autowired
+    public JdbcClusterEventBus(NodeIdentity nodeIdentity, MeterRegistry meterRegistry) {
+        this.nodeId = nodeIdentity.getNodeId();
+        this.publishedEvents = Counter.builder("cluster.events.published")
+                .description("Events this node published on the cluster event bus")
+                .register(meterRegistry);
+        this.receivedEvents = Counter.builder("cluster.events.received")
+                .description("Events from other nodes delivered on this node")
+                .register(meterRegistry);
+        this.skippedGaps = Counter.builder("cluster.events.gaps.skipped")
+                .description("Event ids still missing after the gap timeout")
+                .register(meterRegistry);
+        this.recoveredGaps = Counter.builder("cluster.events.gaps.recovered")
+                .description("Event ids delivered after they were given up")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(String topic, Object payload) {
+        ClusterEvent event = new ClusterEvent();
+        event.setTopic(topic);
+        event.setOriginNode(nodeId);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize cluster event " + topic);
+        }
+        clusterEventRepository.save(event);
+        TransactionUtils.afterCommit(() -> {
+            publishedEvents.increment();
+            deliverLocal(topic, payload);
+        });
+    }
+
+    /**
+     * Delivers events published by other nodes since the last poll
+     */
+    @Scheduled(fixedDelayString = "${app.cluster.poll-interval-ms:250}")
+    public void poll() {
+        try {
+            long now = System.currentTimeMillis();
+            if (highestSeen < 0) {
+                highestSeen = clusterEventRepository.findMaxId();
+            }
+
+            List<ClusterEvent> events = clusterEventRepository.findAfter(highestSeen, PageRequest.of(0, batchSize));
+            for (ClusterEvent event : events) {
+                trackMissing(highestSeen + 1, event.getId(), now);
+                deliver(event);
+                highestSeen = event.getId();
+            }
+
+            recheckGaps(now);
+            heartbeat();
+        } catch (Exception e) {
+            logger.error("Polling cluster events failed", e);
+        }
+    }
+
+    /**
+     * Deletes events that every live node has read, events older than the
+     * retention period, and nodes that stopped polling; one node sweeps per
+     * interval
+     */
+    @Scheduled(fixedDelayString = "${app.cluster.sweep-interval-ms:60000}")
+    public void sweep() {
+        jobLeaseService.runExclusive(SWEEP_JOB, sweepIntervalMs, this::deleteRead);
+    }
+
+    private void deleteRead() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime liveSince = now.minus(nodeTimeoutMs, ChronoUnit.MILLIS);
+        try {
+            Long minCursor = clusterNodeRepository.findMinLastEventIdSeenSince(liveSince);
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("maxId", minCursor != null ? minCursor : -1L)
+                    .addValue("cutoff", now.minus(retentionMs, ChronoUnit.MILLIS))
+                    .addValue("limit", sweepBatchSize);
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_READ, params);
+            } while (deleted == sweepBatchSize);
+
+            jdbcTemplate.update(DELETE_STALE_NODES, new MapSqlParameterSource("before", liveSince));
+        } catch (Exception e) {
+            logger.error("Sweeping cluster events failed: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(ClusterEvent event) {
+        if (!nodeId.equals(event.getOriginNode())) {
+            receivedEvents.increment();
+            deliverRemote(event.getTopic(), type -> read(event, type));
+        }
+    }
+
+    /**
+     * Remembers the ids in [fromId, toId) as missing since now
+     */
+    private void trackMissing(long fromId, long toId, long now) {
+        if (toId - fromId > maxTrackedGaps) {
+            // A jump this large is not a few in-flight transactions; only the newest ids are waited for
+            logger.warn("Skipping {} cluster event ids below {} without waiting", toId - fromId - maxTrackedGaps,
+                    toId - maxTrackedGaps);
+            fromId = toId - maxTrackedGaps;
+        }
+        for (long id = fromId; id < toId; id++) {
+            missing.put(id, now);
+        }
+        while (missing.size() > maxTrackedGaps) {
+            giveUp(missing.pollFirstEntry().getKey(), now);
+        }
+    }
+
+    /**
+     * Delivers missing or given-up ids that have committed since, and gives
+     * up ids missing for longer than the gap timeout
+     */
+    private void recheckGaps(long now) {
+        skipped.values().removeIf(givenUpAt -> now - givenUpAt >= gapRecheckMs);
+
+        List<Long> ids = new ArrayList<>(missing.keySet());
+        // Given-up ids are mostly rolled back for good; look them up once per gap timeout
+        if (!skipped.isEmpty() && now - lastSkippedCheck >= gapTimeoutMs) {
+            ids.addAll(skipped.keySet());
+            lastSkippedCheck = now;
+        }
+        if (!ids.isEmpty()) {
+            for (ClusterEvent event : clusterEventRepository.findAllById(ids)) {
+                missing.remove(event.getId());
+                if (skipped.remove(event.getId()) != null) {
+                    recoveredGaps.increment();
+                    logger.info("Cluster event {} committed after its gap was skipped", event.getId());
+                }
+                deliver(event);
+            }
+        }
+
+        Iterator<Map.Entry<Long, Long>> expired = missing.entrySet().iterator();
+        while (expired.hasNext()) {
+            Map.Entry<Long, Long> gap = expired.next();
+            if (now - gap.getValue() >= gapTimeoutMs) {
+                expired.remove();
+                giveUp(gap.getKey(), now);
+            }
+        }
+    }
+
+    private void giveUp(long id, long now) {
+        skipped.put(id, now);
+        skippedGaps.increment();
+        logger.debug("Cluster event {} still missing after the gap timeout", id);
+    }
+
+    /**
+     * Highest id below which every event has been read or finally given up
+     */
+    private long cursor() {
+        long cursor = highestSeen;
+        if (!missing.isEmpty()) {
+            cursor = Math.min(cursor, missing.firstKey() - 1);
+        }
+        if (!skipped.isEmpty()) {
+            cursor = Math.min(cursor, skipped.firstKey() - 1);
+        }
+        return cursor;
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        long cursor = cursor();
+        if (cursor == recordedCursor && now - lastHeartbeat < heartbeatIntervalMs) {
+            return;
+        }
+        ClusterNode node = new ClusterNode();
+        node.setNodeId(nodeId);
+        node.setLastEventId(cursor);
+        node.setLastSeenAt(LocalDateTime.now());
+        clusterNodeRepository.save(node);
+        recordedCursor = cursor;
+        lastHeartbeat = now;
+    }
+
+    private Object read(ClusterEvent event, Class<?> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable payload of cluster event " + event.getId());
+        }
+    }
+}
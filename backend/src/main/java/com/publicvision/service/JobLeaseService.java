@@ -0,0 +1,268 @@
+package com.publicvision.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.publicvision.config.NodeIdentity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps scheduled jobs that act on shared tables to one node at a time
+ * through leases in job_leases. A node runs a job only after taking its
+ * lease with a conditional UPDATE (or the first INSERT); the lease is
+ * renewed while the job runs, so a crashed node's lease simply expires.
+ *
+ * On release the lease stays held until a minimum hold time after it was
+ * taken, normally the job's interval, so the other nodes' timers for the
+ * same run find it taken and skip. Expiry is computed with the database
+ * clock, which keeps clock skew between nodes out of the picture.
+ *
+ * A lease counts as held here only until a ttl after the last successful
+ * renewal started, and not at all once a renewal finds it taken over. Long
+ * jobs check {@link #isHeld} between units of work and stop when it turns
+ * false, since another node may already be running them.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private static final String TAKE_EXPIRED = "UPDATE job_leases "
+            + "SET holder = :holder, acquired_at = NOW(6), expires_at = NOW(6) + INTERVAL :ttlMicros MICROSECOND "
+            + "WHERE job_name = :job AND expires_at <= NOW(6)";
+
+    private static final String INSERT = "INSERT INTO job_leases (job_name, holder, acquired_at, expires_at) "
+            + "VALUES (:job, :holder, NOW(6), NOW(6) + INTERVAL :ttlMicros MICROSECOND)";
+
+    private static final String RENEW = "UPDATE job_leases "
+            + "SET expires_at = NOW(6) + INTERVAL :ttlMicros MICROSECOND "
+            + "WHERE job_name = :job AND holder = :holder";
+
+    private static final String RELEASE = "UPDATE job_leases "
+            + "SET expires_at = GREATEST(NOW(6), acquired_at + INTERVAL :holdMicros MICROSECOND) "
+            + "WHERE job_name = :job AND holder = :holder";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.scheduler.lease.ttl-ms:300000}")
+    private long ttlMs;
+
+    private final String nodeId;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledThreadPoolExecutor renewals;
+    // Leases this node holds
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private final Map<String, Timer> jobTimers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JobLeaseService(NodeIdentity nodeIdentity, MeterRegistry meterRegistry) {
+        this.nodeId = nodeIdentity.getNodeId();
+        this.meterRegistry = meterRegistry;
+        this.renewals = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "job-lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.renewals.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs a job if this node can take its lease
+     *
+     * @param job Lease name, unique per job
+     * @param minHoldMs How long after it was taken the lease stays held once
+     *            the job finishes, normally the job's interval
+     * @param task The job
+     * @return true when the job ran here, false when another node holds it
+     */
+    public boolean runExclusive(String job, long minHoldMs, Runnable task) {
+        if (!tryAcquire(job)) {
+            return false;
+        }
+        try {
+            jobTimers.get(job).record(task);
+        } finally {
+            release(job, minHoldMs);
+        }
+        return true;
+    }
+
+    /**
+     * Runs a job split into shards, each under its own lease. Every node
+     * starts at a different shard, so nodes whose timers fire together work
+     * through different shards instead of waiting on each other.
+     *
+     * @param job Lease name prefix; shard leases are named "job#n"
+     * @param shards Number of shards
+     * @param minHoldMs Minimum hold per shard lease, see {@link #runExclusive}
+     * @param shardTask Processes one shard, given its number
+     * @return Number of shards processed on this node
+     */
+    public int runSharded(String job, int shards, long minHoldMs, IntConsumer shardTask) {
+        int start = Math.floorMod(nodeId.hashCode(), shards);
+        int processed = 0;
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            try {
+                if (runExclusive(shardName(job, shard), minHoldMs, () -> shardTask.accept(shard))) {
+                    processed++;
+                }
+            } catch (RuntimeException e) {
+                // The other shards still run; this one is retried next time
+                logger.error("Shard {} of job {} failed", shard, job, e);
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Whether this node still holds the lease; false once it was lost or may
+     * have expired because renewals failed
+     */
+    public boolean isHeld(String job) {
+        Lease lease = held.get(job);
+        return lease != null && System.currentTimeMillis() < lease.validUntil;
+    }
+
+    /**
+     * Lease name of one shard of a job run with {@link #runSharded}
+     */
+    public static String shardName(String job, int shard) {
+        return job + "#" + shard;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewals.shutdownNow();
+    }
+
+    private boolean tryAcquire(String job) {
+        registerMeters(job);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("job", job)
+                .addValue("holder", nodeId)
+                .addValue("ttlMicros", ttlMs * 1000);
+        long validUntil = System.currentTimeMillis() + ttlMs;
+        boolean acquired;
+        try {
+            acquired = jdbcTemplate.update(TAKE_EXPIRED, params) == 1;
+            if (!acquired) {
+                try {
+                    acquired = jdbcTemplate.update(INSERT, params) == 1;
+                } catch (DataIntegrityViolationException e) {
+                    // The lease row exists and is still held
+                    acquired = false;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Could not acquire lease for job {}", job, e);
+            return false;
+        }
+        if (!acquired) {
+            return false;
+        }
+
+        long renewEveryMs = Math.max(1000, ttlMs / 3);
+        Lease lease = new Lease(validUntil);
+        held.put(job, lease);
+        lease.renewal = renewals.scheduleWithFixedDelay(() -> renew(job), renewEveryMs, renewEveryMs,
+                TimeUnit.MILLISECONDS);
+        logger.debug("Node {} took the lease for job {}", nodeId, job);
+        return true;
+    }
+
+    private void renew(String job) {
+        Lease lease = held.get(job);
+        if (lease == null) {
+            return;
+        }
+        // Measured from before the update, so this node gives up no later than the database expires it
+        long validUntil = System.currentTimeMillis() + ttlMs;
+        try {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("job", job)
+                    .addValue("holder", nodeId)
+                    .addValue("ttlMicros", ttlMs * 1000);
+            if (jdbcTemplate.update(RENEW, params) == 0) {
+                Counter.builder("scheduler.lease.lost")
+                        .tag("job", job)
+                        .description("Leases that expired while their job was still running")
+                        .register(meterRegistry)
+                        .increment();
+                logger.warn("Lease for job {} was lost while the job was running", job);
+                if (held.remove(job, lease)) {
+                    lease.cancel();
+                }
+            } else {
+                lease.validUntil = validUntil;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not renew lease for job {}", job, e);
+        }
+    }
+
+    private void release(String job, long minHoldMs) {
+        Lease lease = held.remove(job);
+        if (lease != null) {
+            lease.cancel();
+        }
+        try {
+            jdbcTemplate.update(RELEASE, new MapSqlParameterSource()
+                    .addValue("job", job)
+                    .addValue("holder", nodeId)
+                    .addValue("holdMicros", minHoldMs * 1000));
+        } catch (Exception e) {
+            // The lease expires on its own
+            logger.warn("Could not release lease for job {}", job, e);
+        }
+    }
+
+    private void registerMeters(String job) {
+        jobTimers.computeIfAbsent(job, k -> {
+            Gauge.builder("scheduler.lease.held", this, s -> s.isHeld(k) ? 1 : 0)
+                    .tag("job", k)
+                    .description("1 while this node holds the job's lease")
+                    .register(meterRegistry);
+            return Timer.builder("scheduler.job.duration")
+                    .tag("job", k)
+                    .description("Time a scheduled job ran while holding its lease")
+                    .register(meterRegistry);
+        });
+    }
+
+    private static final class Lease {
+
+        // Local time until which the lease is certainly still ours
+        private volatile long validUntil;
+        private volatile ScheduledFuture<?> renewal;
+
+        private Lease(long validUntil) {
+            this.validUntil = validUntil;
+        }
+
+        private void cancel() {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.publicvision.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.entity.HeldNotification;
+import com.publicvision.entity.Notification;
+import com.publicvision.entity.Notification.NotificationType;
+import com.publicvision.repository.HeldNotificationRepository;
+import com.publicvision.repository.NotificationRepository;
+
+/**
+ * Merges bursts of notifications of the same type for the same recipient.
+ *
+ * A notification goes out immediately unless the recipient got one of the
+ * same type within the window or already has some held back; then it is
+ * written to held_notifications instead. Once the oldest held notification
+ * has waited a full window they are released as a single digest carrying
+ * their count and complaint ids (or unchanged, if only one was held). The
+ * released notification opens the next window, so a sustained flood yields
+ * one digest per window.
+ *
+ * Only the types in app.notifications.coalesce.types are coalesced; by
+ * default ESCALATION, which escalation runs fan out to every admin. Held
+ * notifications are written in the creating transaction, so they survive
+ * a restart and rolled-back work holds nothing.
+ */
+@Component
+public class NotificationCoalescer {
+
+    // Upper bound on complaint ids kept per digest; the count stays exact
+    private static final int MAX_DIGEST_COMPLAINT_IDS = 100;
+
+    // Upper bound on digests released per flush; the rest wait for the next one
+    private static final int MAX_RELEASES_PER_FLUSH = 500;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private HeldNotificationRepository heldNotificationRepository;
+
+    @Value("${app.notifications.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.coalesce.window-ms:10000}")
+    private long windowMs;
+
+    @Value("${app.notifications.coalesce.types:ESCALATION}")
+    private Set<NotificationType> coalescedTypes;
+
+    /**
+     * Splits new notifications into those to send now and those to hold back
+     * for a digest, and writes the held ones. Must run in the transaction
+     * that creates the notifications.
+     *
+     * @param notifications New, unsaved notifications
+     * @return The notifications to send now
+     */
+    public List<Notification> admit(List<Notification> notifications) {
+        if (!enabled) {
+            return notifications;
+        }
+        List<Notification> immediate = new ArrayList<>();
+        Map<NotificationType, List<Notification>> coalescible = new EnumMap<>(NotificationType.class);
+        for (Notification notification : notifications) {
+            if (coalescedTypes.contains(notification.getType())) {
+                coalescible.computeIfAbsent(notification.getType(), t -> new ArrayList<>()).add(notification);
+            } else {
+                immediate.add(notification);
+            }
+        }
+        if (coalescible.isEmpty()) {
+            return immediate;
+        }
+
+        LocalDateTime windowStart = LocalDateTime.now().minus(windowMs, ChronoUnit.MILLIS);
+        List<HeldNotification> held = new ArrayList<>();
+        coalescible.forEach((type, candidates) -> {
+            Set<Long> userIds = candidates.stream().map(n -> n.getUser().getUserId()).collect(Collectors.toSet());
+            // Recipients with an open window: recently notified or still holding notifications
+            Set<Long> windowOpen = new HashSet<>(notificationRepository.findRecipientIdsSince(type, userIds, windowStart));
+            windowOpen.addAll(heldNotificationRepository.findHoldingUserIds(type, userIds));
+            for (Notification notification : candidates) {
+                if (windowOpen.add(notification.getUser().getUserId())) {
+                    immediate.add(notification);
+                } else {
+                    held.add(toHeld(notification));
+                }
+            }
+        });
+        heldNotificationRepository.saveAll(held);
+        return immediate;
+    }
+
+    /**
+     * @return Recipient and type pairs whose window has ended, as
+     *         {userId, type} arrays for {@link #release}
+     */
+    public List<Object[]> dueKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(windowMs, ChronoUnit.MILLIS);
+        return heldNotificationRepository.findDueKeys(cutoff, PageRequest.of(0, MAX_RELEASES_PER_FLUSH));
+    }
+
+    /**
+     * Removes the held notifications of a recipient and type and merges them.
+     * Must run in the transaction that writes the result; held notifications
+     * another node is releasing are skipped.
+     *
+     * @return The digest or single notification to write, or null if none
+     *         were held
+     */
+    public Notification release(Long userId, NotificationType type) {
+        List<HeldNotification> held = heldNotificationRepository.lockByKey(userId, type);
+        if (held.isEmpty()) {
+            return null;
+        }
+        heldNotificationRepository.deleteAllInBatch(held);
+
+        HeldNotification latest = held.get(held.size() - 1);
+        if (held.size() == 1) {
+            return NotificationService.newNotification(
+                    latest.getUser(), latest.getMessage(), latest.getType(), latest.getComplaint());
+        }
+        Set<Long> complaintIds = new LinkedHashSet<>();
+        for (HeldNotification notification : held) {
+            if (notification.getComplaint() != null && complaintIds.size() < MAX_DIGEST_COMPLAINT_IDS) {
+                complaintIds.add(notification.getComplaint().getComplaintId());
+            }
+        }
+        Notification digest = NotificationService.newNotification(
+                latest.getUser(),
+                String.format("%d similar notifications. Latest: %s", held.size(), latest.getMessage()),
+                latest.getType(),
+                latest.getComplaint());
+        digest.setDigestCount(held.size());
+        digest.setDigestComplaintIds(complaintIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        return digest;
+    }
+
+    private static HeldNotification toHeld(Notification notification) {
+        HeldNotification held = new HeldNotification();
+        held.setUser(notification.getUser());
+        held.setComplaint(notification.getComplaint());
+        held.setType(notification.getType());
+        held.setMessage(notification.getMessage());
+        return held;
+    }
+}
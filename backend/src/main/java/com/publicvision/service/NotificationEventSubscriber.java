@@ -0,0 +1,135 @@
+package com.publicvision.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.ComplaintEvent;
+import com.publicvision.entity.Notification;
+import com.publicvision.entity.Notification.NotificationType;
+import com.publicvision.entity.User;
+import com.publicvision.repository.ComplaintRepository;
+import com.publicvision.repository.UserRepository;
+
+/**
+ * Turns status changes, merges and escalations into user notifications.
+ * Runs once per event across the cluster; the notifications of a batch are
+ * written with the consumer offset in one transaction.
+ */
+@Component
+public class NotificationEventSubscriber implements ComplaintEventSubscriber {
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public String getName() {
+        return "notifications";
+    }
+
+    @Override
+    public void onEvents(List<ComplaintEvent> events) {
+        List<Notification> notifications = new ArrayList<>();
+        List<User> adminUsers = null;
+
+        for (ComplaintEvent event : events) {
+            if (event.getType() == ComplaintEvent.Type.CREATED) {
+                // Announced by the post-submission pipeline once the complaint is enriched
+                continue;
+            }
+            Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(event.getComplaintId())
+                    .orElse(null);
+            if (complaint == null) {
+                continue;
+            }
+
+            switch (event.getType()) {
+                case STATUS_CHANGED -> addStatusChange(notifications, complaint, event);
+                case MERGED -> notifications.add(NotificationService.newNotification(
+                        complaint.getUser(),
+                        String.format("Your complaint '%s' has been merged with another complaint.",
+                                complaint.getTitle()),
+                        NotificationType.STATUS_CHANGE,
+                        complaint));
+                case ESCALATED -> {
+                    if (adminUsers == null) {
+                        adminUsers = userRepository.findByRole(User.Role.ADMIN);
+                    }
+                    addEscalation(notifications, complaint, adminUsers);
+                }
+                default -> {
+                }
+            }
+        }
+
+        if (!notifications.isEmpty()) {
+            // Bursts of admin escalation notices are merged into digests
+            notificationService.createCoalescedNotifications(notifications);
+        }
+    }
+
+    private static void addStatusChange(List<Notification> notifications, Complaint complaint, ComplaintEvent event) {
+        Long ownerId = complaint.getUser().getUserId();
+        // Nobody is told about their own change
+        if (!ownerId.equals(event.getActorId())) {
+            notifications.add(NotificationService.newNotification(
+                    complaint.getUser(),
+                    String.format("Your complaint '%s' status changed from %s to %s",
+                            complaint.getTitle(), event.getOldStatus(), event.getNewStatus()),
+                    NotificationType.STATUS_CHANGE,
+                    complaint));
+        }
+
+        User assignedTo = complaint.getAssignedTo();
+        if (assignedTo != null && !assignedTo.getUserId().equals(ownerId)
+                && !assignedTo.getUserId().equals(event.getActorId())) {
+            notifications.add(NotificationService.newNotification(
+                    assignedTo,
+                    String.format("Complaint '%s' status updated to %s", complaint.getTitle(), event.getNewStatus()),
+                    NotificationType.STATUS_CHANGE,
+                    complaint));
+        }
+    }
+
+    private static void addEscalation(List<Notification> notifications, Complaint complaint, List<User> adminUsers) {
+        // Notify complaint owner
+        notifications.add(NotificationService.newNotification(
+                complaint.getUser(),
+                String.format("Your complaint '%s' has been escalated due to exceeding SLA time limit.",
+                        complaint.getTitle()),
+                NotificationType.STATUS_CHANGE,
+                complaint));
+
+        // Notify assigned staff if any
+        if (complaint.getAssignedTo() != null) {
+            notifications.add(NotificationService.newNotification(
+                    complaint.getAssignedTo(),
+                    String.format("Complaint '%s' has been automatically escalated due to exceeding SLA time limit.",
+                            complaint.getTitle()),
+                    NotificationType.STATUS_CHANGE,
+                    complaint));
+        }
+
+        // Notify all admins
+        String adminMessage = String.format(
+                "ESCALATED: Complaint '%s' (ID: %d) has exceeded SLA time limit and requires attention.",
+                complaint.getTitle(),
+                complaint.getComplaintId());
+        for (User admin : adminUsers) {
+            notifications.add(NotificationService.newNotification(
+                    admin,
+                    adminMessage,
+                    NotificationType.ESCALATION,
+                    complaint));
+        }
+    }
+}
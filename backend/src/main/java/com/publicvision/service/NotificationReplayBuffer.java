@@ -0,0 +1,106 @@
+package com.publicvision.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.dto.NotificationDTO;
+
+/**
+ * Bounded per-user buffer of recently pushed notifications, used to replay
+ * what a client missed while its SSE connection was down. The notification
+ * id doubles as the SSE event id, but ids are assigned at insert while
+ * delivery follows commit, so a lower id can be delivered after a higher
+ * one.
+ *
+ * Each buffer therefore numbers events in the order they were delivered and
+ * holds the most recent ones. A reconnect whose Last-Event-ID is still in
+ * the buffer gets every event delivered after it, whatever their ids; any
+ * other reconnect must be served from the database.
+ */
+@Component
+public class NotificationReplayBuffer {
+
+    @Value("${app.sse.replay.buffer-size:50}")
+    private int bufferSize;
+
+    @Value("${app.sse.replay.idle-ms:600000}")
+    private long idleMs;
+
+    private final Map<Long, UserBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Records a notification pushed to a user
+     */
+    public void record(Long userId, NotificationDTO notification) {
+        if (notification.getId() == null) {
+            return;
+        }
+        buffers.computeIfAbsent(userId, id -> new UserBuffer()).add(notification, bufferSize);
+    }
+
+    /**
+     * Returns the buffered notifications after the given event id
+     *
+     * @param userId User reconnecting
+     * @param lastEventId Id of the last event the client received
+     * @return Notifications delivered after that event, in delivery order,
+     *         or null if the event is no longer buffered
+     */
+    public List<NotificationDTO> eventsAfter(Long userId, long lastEventId) {
+        UserBuffer buffer = buffers.get(userId);
+        return buffer != null ? buffer.after(lastEventId) : null;
+    }
+
+    /**
+     * Drops buffers of users who have not received anything for a while
+     */
+    @Scheduled(fixedDelayString = "${app.sse.replay.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        Iterator<UserBuffer> it = buffers.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lastUpdated < cutoff) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class UserBuffer {
+
+        // Delivery sequence -> notification
+        private final TreeMap<Long, NotificationDTO> events = new TreeMap<>();
+        private final Map<Long, Long> sequenceById = new HashMap<>();
+        private long nextSequence;
+        private volatile long lastUpdated = System.currentTimeMillis();
+
+        private synchronized void add(NotificationDTO notification, int capacity) {
+            if (sequenceById.containsKey(notification.getId())) {
+                return;
+            }
+            long sequence = ++nextSequence;
+            events.put(sequence, notification);
+            sequenceById.put(notification.getId(), sequence);
+            while (events.size() > capacity) {
+                sequenceById.remove(events.pollFirstEntry().getValue().getId());
+            }
+            lastUpdated = System.currentTimeMillis();
+        }
+
+        private synchronized List<NotificationDTO> after(long lastEventId) {
+            Long sequence = sequenceById.get(lastEventId);
+            if (sequence == null) {
+                return null;
+            }
+            return new ArrayList<>(events.tailMap(sequence, false).values());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.publicvision.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.publicvision.entity.Notification.NotificationType;
+
+/**
+ * Moves read notifications past their retention period from the live
+ * {@code notifications} table into {@code notifications_archive}.
+ *
+ * Work is done in small batches, each in its own short transaction, so the
+ * job never holds locks on a large range of the live table. Retention is
+ * configured per notification type with a global default. The nightly
+ * run happens on one node only, under a job lease.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private static final String JOB_NAME = "notification-retention";
+
+    // Every node's cron fires at once; the lease keeps the run to one node for the next hour
+    private static final long LEASE_HOLD_MS = 3600000;
+
+    // Walks idx_notifications_type_read_sent_id in index order, so LIMIT stops the scan early
+    private static final String SELECT_EXPIRED_IDS = "SELECT notification_id FROM notifications "
+            + "WHERE type = :type AND is_read = TRUE AND sent_at < :cutoff "
+            + "ORDER BY sent_at, notification_id LIMIT :limit";
+
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO notifications_archive "
+            + "(notification_id, user_id, complaint_id, message, sent_at, is_read, type, "
+            + "digest_count, digest_complaint_ids, archived_at) "
+            + "SELECT notification_id, user_id, complaint_id, message, sent_at, is_read, type, "
+            + "digest_count, digest_complaint_ids, :archivedAt "
+            + "FROM notifications WHERE notification_id IN (:ids)";
+
+    private static final String DELETE_ARCHIVED = "DELETE FROM notifications WHERE notification_id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.retention.days:90}")
+    private int defaultRetentionDays;
+
+    // e.g. {COMMENT:30,INFO:14}; types not listed use the default
+    @Value("#{${app.notifications.retention.days-by-type:{:}}}")
+    private Map<String, Integer> retentionDaysByType;
+
+    @Value("${app.notifications.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.retention.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    @Autowired
+    public NotificationRetentionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Archives expired read notifications of every type
+     */
+    @Scheduled(cron = "${app.notifications.retention.cron:0 30 3 * * *}")
+    public void archiveExpiredNotifications() {
+        if (!enabled) {
+            return;
+        }
+        jobLeaseService.runExclusive(JOB_NAME, LEASE_HOLD_MS, this::archiveAllTypes);
+    }
+
+    private void archiveAllTypes() {
+        for (NotificationType type : NotificationType.values()) {
+            int days = retentionDaysByType.getOrDefault(type.name(), defaultRetentionDays);
+            try {
+                long archived = archive(type, LocalDateTime.now().minusDays(days));
+                if (archived > 0) {
+                    logger.info("Archived {} read {} notifications older than {} days", archived, type, days);
+                }
+            } catch (Exception e) {
+                logger.error("Archiving {} notifications failed", type, e);
+            }
+        }
+    }
+
+    /**
+     * Archives read notifications of one type sent before the cut-off
+     *
+     * @param type Notification type
+     * @param cutoff Notifications sent before this time are archived
+     * @return Number of notifications archived
+     */
+    public long archive(NotificationType type, LocalDateTime cutoff) {
+        long total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(type, cutoff));
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+            if (moved < batchSize) {
+                return total;
+            }
+            if (batchPauseMs > 0) {
+                try {
+                    Thread.sleep(batchPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return total;
+                }
+            }
+        }
+    }
+
+    private int archiveBatch(NotificationType type, LocalDateTime cutoff) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("type", type.name());
+        params.put("cutoff", cutoff);
+        params.put("limit", batchSize);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_EXPIRED_IDS, params, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("ids", ids);
+        batch.put("archivedAt", LocalDateTime.now());
+        jdbcTemplate.update(COPY_TO_ARCHIVE, batch);
+        jdbcTemplate.update(DELETE_ARCHIVED, batch);
+        return ids.size();
+    }
+}
@@ -1,50 +1,104 @@
 package com.publicvision.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.publicvision.dto.CursorPageDTO;
 import com.publicvision.dto.NotificationDTO;
+import com.publicvision.dto.NotificationDeliveryDTO;
 import com.publicvision.entity.Complaint;
 import com.publicvision.entity.Notification;
 import com.publicvision.entity.Notification.NotificationType;
 import com.publicvision.entity.User;
 import com.publicvision.repository.NotificationRepository;
 import com.publicvision.repository.UserRepository;
+import com.publicvision.security.UserPrincipal;
+import com.publicvision.util.PageCursor;
+import com.publicvision.util.SecurityUtils;
 
-import java.io.IOException;
-
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final String DELIVERY_TOPIC = "notifications";
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    // Store active SSE connections by user ID
-    private final Map<Long, SseEmitter> userEmitters = new ConcurrentHashMap<>();
+    @Autowired
+    private SseConnectionRegistry sseConnectionRegistry;
+
+    @Autowired
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private NotificationReplayBuffer notificationReplayBuffer;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${app.sse.replay.max-db-events:50}")
+    private int maxReplayFromDb;
+
+    @Value("${app.sse.replay.grace-ms:30000}")
+    private long replayGraceMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public NotificationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delivers notifications on every node, since the recipient's SSE and
+     * STOMP connections may be held by any of them
+     */
+    @PostConstruct
+    public void subscribeDelivery() {
+        clusterEventBus.subscribe(DELIVERY_TOPIC, NotificationDeliveryDTO[].class, deliveries -> {
+            for (NotificationDeliveryDTO delivery : deliveries) {
+                sendNotificationToUser(delivery.getUserId(), delivery.getNotification());
+                realtimeMessagingService.sendNotification(delivery.getEmail(), delivery.getNotification());
+            }
+        });
+    }
 
     /**
      * Gets paginated notifications for the current user
      */
     public Page<NotificationDTO> getUserNotifications(int page, int size) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.getReferenceById(SecurityUtils.getCurrentUser().getUserId());
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("sentAt").descending());
         Page<Notification> notificationPage = notificationRepository.findByUser(user, pageable);
@@ -53,14 +107,33 @@ public class NotificationService {
     }
 
     /**
-     * Get count of unread notifications for current user
+     * Cursor-paginated variant of {@link #getUserNotifications}, newest
+     * first. Uses keyset paging on (sentAt, id) and runs no COUNT query.
+     *
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size (capped at 100)
+     * @return Page with the cursor of the next page
      */
-    public Long getUnreadNotificationCount() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorPageDTO<NotificationDTO> getUserNotificationsByCursor(String cursor, int size) {
+        User user = userRepository.getReferenceById(SecurityUtils.getCurrentUser().getUserId());
 
-        return notificationRepository.countByUserAndIsReadFalse(user);
+        PageCursor position = PageCursor.decode(cursor);
+        if (position == null) {
+            position = PageCursor.first();
+        }
+        int limit = Math.max(1, Math.min(size, 100));
+        List<Notification> rows = notificationRepository.findPageByUserAfterCursor(
+                user, position.getTimestamp(), position.getId(), PageRequest.of(0, limit + 1));
+        return CursorPageDTO.fromRows(rows, limit, Notification::getSentAt, Notification::getNotificationId,
+                NotificationDTO::fromNotification);
+    }
+
+    /**
+     * Get count of unread notifications for current user from the in-memory
+     * counter
+     */
+    public Long getUnreadNotificationCount() {
+        return unreadNotificationCounter.getCount(SecurityUtils.getCurrentUser().getUserId());
     }
 
     /**
@@ -68,9 +141,7 @@ public class NotificationService {
      */
     @Transactional
     public void markAsRead(Long id) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal user = SecurityUtils.getCurrentUser();
 
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
@@ -79,29 +150,61 @@ public class NotificationService {
             throw new RuntimeException("Notification does not belong to the current user");
         }
 
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            notification.setIsRead(true);
+            notificationRepository.save(notification);
+            unreadNotificationCounter.decrement(user.getUserId(), 1);
+        }
     }
 
     /**
-     * Mark all notifications as read for current user
+     * Mark all notifications as read for current user with a single UPDATE
      */
     @Transactional
     public void markAllAsRead() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserPrincipal user = SecurityUtils.getCurrentUser();
 
-        List<Notification> unreadNotifications = notificationRepository.findByUserAndIsReadFalse(user);
-        unreadNotifications.forEach(notification -> notification.setIsRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+        notificationRepository.markAllAsRead(user.getUserId());
+        unreadNotificationCounter.reset(user.getUserId());
     }
 
     /**
-     * Creates a notification and sends it via SSE if user is connected
+     * Mark the given notifications of the current user as read with a single
+     * UPDATE. Ids of other users' notifications are ignored.
+     *
+     * @param ids Notification ids
+     * @return Number of notifications that changed from unread to read
      */
     @Transactional
-    public Notification createNotification(User user, String message, NotificationType type, Complaint complaint) {
+    public int markAsRead(List<Long> ids) {
+        UserPrincipal user = SecurityUtils.getCurrentUser();
+
+        int updated = notificationRepository.markAsReadByIds(user.getUserId(), ids);
+        unreadNotificationCounter.decrement(user.getUserId(), updated);
+        return updated;
+    }
+
+    /**
+     * Mark every notification of the current user sent at or before the
+     * given time as read with a single UPDATE
+     *
+     * @param before Cut-off time
+     * @return Number of notifications that changed from unread to read
+     */
+    @Transactional
+    public int markAsReadBefore(LocalDateTime before) {
+        UserPrincipal user = SecurityUtils.getCurrentUser();
+
+        int updated = notificationRepository.markAsReadBefore(user.getUserId(), before);
+        unreadNotificationCounter.decrement(user.getUserId(), updated);
+        return updated;
+    }
+
+    /**
+     * Builds an unsaved notification, e.g. to collect several for
+     * {@link #createNotifications(List)}
+     */
+    public static Notification newNotification(User user, String message, NotificationType type, Complaint complaint) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setMessage(message);
@@ -109,54 +212,174 @@ public class NotificationService {
         notification.setComplaint(complaint);
         notification.setSentAt(LocalDateTime.now());
         notification.setIsRead(false);
+        return notification;
+    }
 
+    /**
+     * Creates a notification and queues it for SSE delivery after commit
+     */
+    @Transactional
+    public Notification createNotification(User user, String message, NotificationType type, Complaint complaint) {
+        Notification notification = newNotification(user, message, type, complaint);
         Notification savedNotification = notificationRepository.save(notification);
 
-        // Send notification through SSE if user is connected
-        sendNotificationToUser(user.getUserId(), NotificationDTO.fromNotification(savedNotification));
+        // Hand the notification to SSE and STOMP delivery on every node once it
+        // is committed; sending happens on the dispatch pools so a slow client
+        // never blocks the caller
+        NotificationDTO dto = NotificationDTO.fromNotification(savedNotification);
+        clusterEventBus.publish(DELIVERY_TOPIC, new NotificationDeliveryDTO[] {
+                new NotificationDeliveryDTO(user.getUserId(), user.getEmail(), dto)});
+        unreadNotificationCounter.increment(user.getUserId(), 1);
 
         return savedNotification;
     }
 
     /**
-     * Register a new SSE connection for a user
+     * Creates many notifications at once with JDBC batch inserts and, after
+     * commit, hands them to SSE and STOMP delivery in a single pass
+     *
+     * @param notifications Unsaved notifications, see {@link #newNotification}
+     * @return The saved notifications
      */
-    public SseEmitter createSseEmitter(Long userId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // Long timeout
+    @Transactional
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        insertAndDeliver(notifications);
+        return notifications;
+    }
 
-        // Set completion callbacks
-        emitter.onCompletion(() -> userEmitters.remove(userId));
-        emitter.onTimeout(() -> userEmitters.remove(userId));
-        emitter.onError(e -> userEmitters.remove(userId));
+    /**
+     * Like {@link #createNotifications}, but notifications of a coalesced
+     * type whose recipient's coalescing window is open are held back and
+     * later merged into a digest, see {@link NotificationCoalescer}
+     *
+     * @param notifications Unsaved notifications, see {@link #newNotification}
+     * @return The notifications written now; held ones are written later
+     */
+    @Transactional
+    public List<Notification> createCoalescedNotifications(List<Notification> notifications) {
+        List<Notification> immediate = notificationCoalescer.admit(notifications);
+        insertAndDeliver(immediate);
+        return immediate;
+    }
 
-        // Send initial connection established event
-        try {
-            emitter.send(SseEmitter.event().name("INIT").data("Connection established"));
-        } catch (IOException e) {
-            emitter.completeWithError(e);
-            return emitter;
+    /**
+     * Writes digests and other held-back notifications whose coalescing
+     * window has ended, one recipient and type per transaction. A failed
+     * write leaves them held for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.coalesce.flush-interval-ms:1000}")
+    public void flushCoalescedNotifications() {
+        for (Object[] key : notificationCoalescer.dueKeys()) {
+            Long userId = (Long) key[0];
+            NotificationType type = (NotificationType) key[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Notification released = notificationCoalescer.release(userId, type);
+                    if (released != null) {
+                        insertAndDeliver(List.of(released));
+                    }
+                });
+            } catch (Exception e) {
+                logger.error("Failed to write held {} notifications of user {}", type, userId, e);
+            }
         }
+    }
 
-        // Store emitter in the map
-        userEmitters.put(userId, emitter);
+    /**
+     * Batch-inserts notifications and queues their delivery and unread
+     * counter updates for after commit (immediately outside a transaction)
+     */
+    private void insertAndDeliver(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        notificationRepository.insertAll(notifications);
+
+        NotificationDeliveryDTO[] deliveries = new NotificationDeliveryDTO[notifications.size()];
+        Map<Long, Integer> countsByUser = new HashMap<>();
+        for (int i = 0; i < deliveries.length; i++) {
+            Notification notification = notifications.get(i);
+            User recipient = notification.getUser();
+            deliveries[i] = new NotificationDeliveryDTO(recipient.getUserId(), recipient.getEmail(),
+                    NotificationDTO.fromNotification(notification));
+            countsByUser.merge(recipient.getUserId(), 1, Integer::sum);
+        }
+        clusterEventBus.publish(DELIVERY_TOPIC, deliveries);
+        countsByUser.forEach(unreadNotificationCounter::increment);
+    }
 
+    /**
+     * Register a new SSE connection for a user. A user may keep several
+     * connections open (one per tab); each receives every notification and
+     * UNREAD_COUNT events whenever the unread count changes, starting with
+     * the current count.
+     *
+     * @param user Principal of the user opening the stream
+     * @param lastEventId Last-Event-ID sent by a reconnecting client, or null
+     * @return SSE emitter for the connection
+     */
+    public SseEmitter createSseEmitter(UserPrincipal user, String lastEventId) {
+        SseEmitter emitter = sseConnectionRegistry.register(user.getUserId(), SseConnectionRegistry.NOTIFICATIONS,
+                SseEmitter.event().name("INIT").data("Connection established"),
+                () -> missedEvents(user.getUserId(), lastEventId));
+        unreadNotificationCounter.pushCurrent(user.getUserId());
         return emitter;
     }
 
     /**
-     * Send notification to a specific user via SSE
+     * Builds the events a reconnecting client missed: from the replay buffer
+     * when it still holds the last event, otherwise from the database. The
+     * database replay also resends notifications sent up to
+     * app.sse.replay.grace-ms before the last event, since one with a lower
+     * id may have committed after it; the client drops ids it already has.
+     * A gap larger than app.sse.replay.max-db-events is answered with a
+     * RESYNC event that tells the client to reload its list instead.
      */
-    private void sendNotificationToUser(Long userId, NotificationDTO notification) {
-        SseEmitter emitter = userEmitters.get(userId);
-        if (emitter != null) {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("NOTIFICATION")
-                        .data(notification));
-            } catch (IOException e) {
-                userEmitters.remove(userId);
+    private List<SseEmitter.SseEventBuilder> missedEvents(Long userId, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return List.of();
+        }
+
+        List<NotificationDTO> missed = notificationReplayBuffer.eventsAfter(userId, lastId);
+        if (missed == null) {
+            // Without the last event, only later ids can be replayed
+            LocalDateTime since = notificationRepository.findById(lastId)
+                    .filter(n -> n.getUser().getUserId().equals(userId))
+                    .map(n -> n.getSentAt().minus(replayGraceMs, ChronoUnit.MILLIS))
+                    .orElse(LocalDateTime.now());
+            List<Notification> rows = notificationRepository.findForReplay(
+                    userId, lastId, since, PageRequest.of(0, maxReplayFromDb + 1));
+            if (rows.size() > maxReplayFromDb) {
+                return List.of(SseEmitter.event().name("RESYNC").data("Too many missed notifications"));
             }
+            missed = rows.stream().map(NotificationDTO::fromNotification).toList();
+        }
+
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>(missed.size());
+        for (NotificationDTO notification : missed) {
+            events.add(notificationEvent(notification));
         }
+        return events;
+    }
+
+    /**
+     * Queue a notification for all open connections of a user and remember
+     * it for replay
+     */
+    private void sendNotificationToUser(Long userId, NotificationDTO notification) {
+        notificationReplayBuffer.record(userId, notification);
+        sseConnectionRegistry.sendToUser(userId, SseConnectionRegistry.NOTIFICATIONS, "NOTIFICATION", notification,
+                notification.getId() != null ? String.valueOf(notification.getId()) : null);
+    }
+
+    private static SseEmitter.SseEventBuilder notificationEvent(NotificationDTO notification) {
+        return SseEmitter.event().id(String.valueOf(notification.getId())).name("NOTIFICATION").data(notification);
     }
 
     /**
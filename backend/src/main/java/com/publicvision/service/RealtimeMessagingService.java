@@ -0,0 +1,76 @@
+package com.publicvision.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.dto.ComplaintEventDTO;
+import com.publicvision.dto.NotificationDTO;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.entity.User.Role;
+import com.publicvision.util.TransactionUtils;
+
+/**
+ * Publishes complaint and notification events to STOMP destinations on the
+ * in-process broker. Messages are only sent after the surrounding
+ * transaction commits; the broker delivers them on its own outbound pool.
+ */
+@Service
+public class RealtimeMessagingService {
+
+    private static final String COMPLAINTS_TOPIC = "/topic/complaints";
+    private static final String USER_COMPLAINTS_QUEUE = "/queue/complaints";
+    private static final String USER_NOTIFICATIONS_QUEUE = "/queue/notifications";
+
+    private static final Role[] STAFF_ROLES = {Role.ADMIN, Role.STAFF};
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Publishes a newly created complaint to the public topic and staff roles
+     */
+    public void complaintCreated(ComplaintDTO complaint) {
+        ComplaintEventDTO event = new ComplaintEventDTO(ComplaintEventDTO.CREATED, null, complaint);
+        TransactionUtils.afterCommit(() -> {
+            messagingTemplate.convertAndSend(COMPLAINTS_TOPIC, event);
+            sendToStaffRoles(event);
+        });
+    }
+
+    /**
+     * Publishes a status change to the complaint owner and staff roles
+     *
+     * @param complaint Complaint after the change
+     * @param ownerEmail Email (principal name) of the complaint owner
+     * @param oldStatus Status before the change
+     */
+    public void complaintStatusChanged(ComplaintDTO complaint, String ownerEmail, ComplaintStatus oldStatus) {
+        ComplaintEventDTO event = new ComplaintEventDTO(ComplaintEventDTO.STATUS_CHANGED,
+                oldStatus != null ? oldStatus.name() : null, complaint);
+        TransactionUtils.afterCommit(() -> {
+            if (ownerEmail != null) {
+                messagingTemplate.convertAndSendToUser(ownerEmail, USER_COMPLAINTS_QUEUE, event);
+            }
+            sendToStaffRoles(event);
+        });
+    }
+
+    /**
+     * Sends a committed notification to its recipient's sessions on this
+     * node; called by the cluster event bus on every node
+     *
+     * @param recipientEmail Email (principal name) of the recipient
+     * @param notification Notification to deliver
+     */
+    public void sendNotification(String recipientEmail, NotificationDTO notification) {
+        messagingTemplate.convertAndSendToUser(recipientEmail, USER_NOTIFICATIONS_QUEUE, notification);
+    }
+
+    private void sendToStaffRoles(ComplaintEventDTO event) {
+        for (Role role : STAFF_ROLES) {
+            messagingTemplate.convertAndSend("/topic/role/" + role.name() + "/complaints", event);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.publicvision.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.exception.BadRequestException;
+import com.publicvision.repository.ComplaintRepository;
+import com.publicvision.util.TransactionUtils;
+
+/**
+ * Micro-cache for the public recent-complaints feed. The first few pages are
+ * kept as serialized (and optionally gzipped) JSON with a content ETag, rebuilt
+ * at most once per TTL or after a complaint is created. Concurrent misses for
+ * the same page wait for a single rebuild, so a spike on the landing page
+ * costs at most one query per page per TTL.
+ *
+ * Creations only make a page stale once it is older than the minimum rebuild
+ * interval, so a burst of submissions does not turn into a rebuild per
+ * complaint. Requests beyond the cached pages are rejected and page sizes are
+ * clamped, so every request is answered from the cache.
+ */
+@Service
+public class RecentComplaintsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentComplaintsCache.class);
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.complaints.recent-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.complaints.recent-cache.ttl-ms:1000}")
+    private long ttlMs;
+
+    @Value("${app.complaints.recent-cache.min-rebuild-interval-ms:250}")
+    private long minRebuildIntervalMs;
+
+    @Value("${app.complaints.recent-cache.max-pages:3}")
+    private int maxPages;
+
+    @Value("${app.complaints.recent-cache.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${app.complaints.recent-cache.gzip:true}")
+    private boolean gzip;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final Map<String, Object> rebuildLocks = new ConcurrentHashMap<>();
+
+    // Bumped on every complaint creation; feeds built before the bump are stale
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the serialized feed page, from the cache when it is fresh
+     *
+     * @param page Page number, below the number of cached pages
+     * @param size Page size, clamped to the maximum cached page size
+     * @return Serialized page with its ETag
+     */
+    public Feed get(int page, int size) {
+        if (page < 0 || page >= maxPages) {
+            throw new BadRequestException("Only the first " + maxPages + " pages of recent complaints are available");
+        }
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        size = Math.min(size, maxPageSize);
+        if (!enabled) {
+            return build(page, size, generation.get(), false);
+        }
+
+        String key = page + ":" + size;
+        Feed feed = feeds.get(key);
+        if (isFresh(feed)) {
+            return feed;
+        }
+
+        synchronized (rebuildLocks.computeIfAbsent(key, k -> new Object())) {
+            feed = feeds.get(key);
+            if (isFresh(feed)) {
+                return feed;
+            }
+            feed = build(page, size, generation.get(), gzip);
+            feeds.put(key, feed);
+            return feed;
+        }
+    }
+
+    /**
+     * Marks every cached page stale once the current transaction commits
+     */
+    public void invalidate() {
+        TransactionUtils.afterCommit(generation::incrementAndGet);
+    }
+
+    private boolean isFresh(Feed feed) {
+        if (feed == null) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - feed.builtAt;
+        // A page made stale by a creation is still served until it is old enough to rebuild
+        return age < ttlMs && (feed.generation == generation.get() || age < minRebuildIntervalMs);
+    }
+
+    private Feed build(int page, int size, long buildGeneration, boolean compress) {
+        // A Page, as this endpoint has always returned; the COUNT runs once per rebuild
+        Page<ComplaintDTO> complaints = complaintRepository.findAllAsDTO(
+                PageRequest.of(page, size, Sort.by("createdAt").descending()));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(complaints);
+            byte[] gzipped = compress ? gzip(json) : null;
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new Feed(json, gzipped, etag, buildGeneration, System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.error("Failed to serialize recent complaints", e);
+            throw new RuntimeException("Failed to load recent complaints");
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+            zip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A serialized feed page
+     */
+    public static class Feed {
+
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final String etag;
+        private final long generation;
+        private final long builtAt;
+
+        Feed(byte[] json, byte[] gzipped, String etag, long generation, long builtAt) {
+            this.json = json;
+            this.gzipped = gzipped;
+            this.etag = etag;
+            this.generation = generation;
+            this.builtAt = builtAt;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return Gzipped JSON, or null when the page is not pre-compressed
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
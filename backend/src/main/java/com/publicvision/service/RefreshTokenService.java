@@ -0,0 +1,193 @@
+package com.publicvision.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.publicvision.entity.RefreshToken;
+import com.publicvision.repository.RefreshTokenRepository;
+import com.publicvision.util.TransactionUtils;
+
+/**
+ * Issues and rotates opaque refresh tokens. Only SHA-256 hashes are stored.
+ * Lookups go through an in-memory index backed by the refresh_tokens table,
+ * so a refresh normally costs a single DELETE (consuming the old token) and
+ * an INSERT (the new one). Expired rows are removed in batches by a
+ * background sweeper.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final String SWEEP_JOB = "refresh-token-sweep";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM refresh_tokens WHERE expires_at < :now LIMIT :limit";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.auth.refresh-token.ttl-ms:1209600000}")
+    private long ttlMs;
+
+    @Value("${app.auth.refresh-token.sweep-interval-ms:3600000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.auth.refresh-token.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    // Token hash -> stored token; filled on issue and on first lookup after a restart
+    private final Map<String, IndexedToken> index = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a refresh token for a user
+     *
+     * @param userId Owner of the token
+     * @return The opaque token to hand to the client
+     */
+    @Transactional
+    public String issue(Long userId) {
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(userId);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(ttlMs, ChronoUnit.MILLIS));
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+
+        IndexedToken indexed = new IndexedToken(saved.getId(), userId, saved.getExpiresAt());
+        TransactionUtils.afterCommit(() -> index.put(saved.getTokenHash(), indexed));
+        return token;
+    }
+
+    /**
+     * Consumes a refresh token. Each token can be used once; a concurrent or
+     * repeated use of the same token fails.
+     *
+     * @param token Opaque token from the client
+     * @return Id of the token's owner
+     */
+    @Transactional
+    public Long consume(String token) {
+        String tokenHash = hash(token);
+        IndexedToken indexed = index.get(tokenHash);
+        if (indexed == null) {
+            indexed = refreshTokenRepository.findByTokenHash(tokenHash)
+                    .map(t -> new IndexedToken(t.getId(), t.getUserId(), t.getExpiresAt()))
+                    .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        }
+        if (indexed.expiresAt.isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Refresh token expired");
+        }
+
+        index.remove(tokenHash);
+        if (refreshTokenRepository.deleteByIdIfPresent(indexed.id) == 0) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        return indexed.userId;
+    }
+
+    /**
+     * Revokes a single refresh token if it exists, e.g. on logout
+     *
+     * @param token Opaque token from the client
+     */
+    @Transactional
+    public void revoke(String token) {
+        String tokenHash = hash(token);
+        index.remove(tokenHash);
+        refreshTokenRepository.findByTokenHash(tokenHash)
+                .ifPresent(t -> refreshTokenRepository.deleteByIdIfPresent(t.getId()));
+    }
+
+    /**
+     * Revokes every refresh token of a user, e.g. on logout or password change
+     *
+     * @param userId Owner of the tokens
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteAllByUserId(userId);
+        TransactionUtils.afterCommit(() -> index.values().removeIf(t -> t.userId.equals(userId)));
+    }
+
+    /**
+     * Deletes expired tokens in batches and drops them from the index; the
+     * table is swept by one node per interval
+     */
+    @Scheduled(initialDelayString = "${app.auth.refresh-token.sweep-interval-ms:3600000}",
+            fixedDelayString = "${app.auth.refresh-token.sweep-interval-ms:3600000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        index.values().removeIf(t -> t.expiresAt.isBefore(now));
+        jobLeaseService.runExclusive(SWEEP_JOB, sweepIntervalMs, () -> deleteExpired(now));
+    }
+
+    private void deleteExpired(LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("limit", sweepBatchSize);
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED, params);
+                total += deleted;
+            } while (deleted == sweepBatchSize);
+        } catch (Exception e) {
+            logger.error("Sweeping expired refresh tokens failed", e);
+        }
+        if (total > 0) {
+            logger.info("Deleted {} expired refresh tokens", total);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class IndexedToken {
+
+        private final Long id;
+        private final Long userId;
+        private final LocalDateTime expiresAt;
+
+        IndexedToken(Long id, Long userId, LocalDateTime expiresAt) {
+            this.id = id;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.publicvision.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.publicvision.dto.ResolutionStatsDTO;
+import com.publicvision.dto.ResolutionStatsDTO.PercentileSummaryDTO;
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.entity.User;
+import com.publicvision.repository.ComplaintUpdateRepository;
+import com.publicvision.util.LogHistogram;
+import com.publicvision.util.TransactionUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks resolution-time and first-response-time distributions per category
+ * and per staff member in fixed-size log histograms. Values are recorded in
+ * seconds when a complaint changes status, so percentiles never require
+ * loading or sorting complaint rows.
+ *
+ * Resolution time runs from creation to the first time a complaint is
+ * resolved; resolving it again after a reopen is not counted twice. First
+ * response time runs from creation to the first status other than SUBMITTED
+ * or ESCALATED, since escalation is automatic and not a response. Both are
+ * attributed to the assignee. The startup history and the live path use the
+ * same definitions, both read from the complaint update rows.
+ */
+@Service
+public class ResolutionTimeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionTimeService.class);
+
+    // 6 significant bits keeps every reported value within ~3% of the real one
+    private static final int PRECISION_BITS = 6;
+
+    // Clamp at ~68 years; anything longer is a data error anyway
+    private static final long MAX_TRACKABLE_SECONDS = 1L << 31;
+
+    private static final double SECONDS_PER_HOUR = 3600.0;
+
+    private static final Set<ComplaintStatus> NOT_A_RESPONSE = EnumSet.of(ComplaintStatus.SUBMITTED,
+            ComplaintStatus.ESCALATED);
+
+    @Autowired
+    private ComplaintUpdateRepository complaintUpdateRepository;
+
+    private final Map<String, LogHistogram> resolutionByCategory = new ConcurrentHashMap<>();
+    private final Map<String, LogHistogram> firstResponseByCategory = new ConcurrentHashMap<>();
+    private final Map<Long, LogHistogram> resolutionByStaff = new ConcurrentHashMap<>();
+    private final Map<Long, LogHistogram> firstResponseByStaff = new ConcurrentHashMap<>();
+    private final Map<Long, String> staffNames = new ConcurrentHashMap<>();
+
+    /**
+     * Seeds the histograms from the complaint update history once at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadHistory() {
+        try {
+            List<Object[]> resolved = complaintUpdateRepository.findFirstTransitionsTo(ComplaintStatus.RESOLVED);
+            for (Object[] row : resolved) {
+                recordRow(row, resolutionByCategory, resolutionByStaff);
+            }
+            List<Object[]> responded = complaintUpdateRepository.findFirstTransitionsToNoneOf(NOT_A_RESPONSE);
+            for (Object[] row : responded) {
+                recordRow(row, firstResponseByCategory, firstResponseByStaff);
+            }
+            logger.info("Loaded resolution history: {} resolved, {} responded complaints",
+                    resolved.size(), responded.size());
+        } catch (Exception e) {
+            logger.warn("Could not load resolution history", e);
+        }
+    }
+
+    /**
+     * Records the status transition of a complaint. Every path that changes a
+     * complaint's status calls this before it writes the complaint update row
+     * for the change, since earlier rows decide whether this is the first
+     * response or first resolution. When called inside a transaction the
+     * values are only recorded after commit.
+     *
+     * @param complaint The complaint whose status changed
+     * @param oldStatus Status before the change
+     * @param newStatus Status after the change
+     */
+    public void onStatusChange(Complaint complaint, ComplaintStatus oldStatus, ComplaintStatus newStatus) {
+        if (oldStatus == newStatus || complaint.getCreatedAt() == null) {
+            return;
+        }
+        Long complaintId = complaint.getComplaintId();
+        boolean resolved = newStatus == ComplaintStatus.RESOLVED
+                && !complaintUpdateRepository.existsByComplaintComplaintIdAndStatus(complaintId, newStatus);
+        boolean firstResponse = !NOT_A_RESPONSE.contains(newStatus)
+                && !complaintUpdateRepository.existsByComplaintComplaintIdAndStatusNotIn(complaintId, NOT_A_RESPONSE);
+        if (!firstResponse && !resolved) {
+            return;
+        }
+
+        User staff = complaint.getAssignedTo();
+        Long staffId = staff != null ? staff.getUserId() : null;
+        String staffName = staff != null ? staff.getName() : null;
+        String category = complaint.getCategory();
+        long seconds = Duration.between(complaint.getCreatedAt(), LocalDateTime.now()).getSeconds();
+
+        TransactionUtils.afterCommit(() -> {
+            if (firstResponse) {
+                record(category, staffId, staffName, seconds, firstResponseByCategory, firstResponseByStaff);
+            }
+            if (resolved) {
+                record(category, staffId, staffName, seconds, resolutionByCategory, resolutionByStaff);
+            }
+        });
+    }
+
+    /**
+     * Builds p50/p90/p99 summaries for every tracked category and staff member
+     *
+     * @return Resolution statistics
+     */
+    public ResolutionStatsDTO getResolutionStats() {
+        ResolutionStatsDTO dto = new ResolutionStatsDTO();
+        dto.setResolutionTime(summarize(null, mergeAll(resolutionByCategory)));
+        dto.setFirstResponseTime(summarize(null, mergeAll(firstResponseByCategory)));
+        dto.setResolutionTimeByCategory(summarizeByCategory(resolutionByCategory));
+        dto.setFirstResponseTimeByCategory(summarizeByCategory(firstResponseByCategory));
+        dto.setResolutionTimeByStaff(summarizeByStaff(resolutionByStaff));
+        dto.setFirstResponseTimeByStaff(summarizeByStaff(firstResponseByStaff));
+        return dto;
+    }
+
+    private void recordRow(Object[] row, Map<String, LogHistogram> byCategory, Map<Long, LogHistogram> byStaff) {
+        LocalDateTime createdAt = (LocalDateTime) row[3];
+        LocalDateTime reachedAt = (LocalDateTime) row[4];
+        if (createdAt == null || reachedAt == null) {
+            return;
+        }
+        long seconds = Duration.between(createdAt, reachedAt).getSeconds();
+        record((String) row[0], (Long) row[1], (String) row[2], seconds, byCategory, byStaff);
+    }
+
+    private void record(String category, Long staffId, String staffName, long seconds,
+            Map<String, LogHistogram> byCategory, Map<Long, LogHistogram> byStaff) {
+        if (category != null) {
+            byCategory.computeIfAbsent(category, k -> newHistogram()).record(seconds);
+        }
+        if (staffId != null) {
+            byStaff.computeIfAbsent(staffId, k -> newHistogram()).record(seconds);
+            if (staffName != null) {
+                staffNames.put(staffId, staffName);
+            }
+        }
+    }
+
+    private LogHistogram mergeAll(Map<String, LogHistogram> histograms) {
+        LogHistogram merged = newHistogram();
+        histograms.values().forEach(merged::merge);
+        return merged;
+    }
+
+    private Map<String, PercentileSummaryDTO> summarizeByCategory(Map<String, LogHistogram> histograms) {
+        Map<String, PercentileSummaryDTO> result = new TreeMap<>();
+        histograms.forEach((category, histogram) -> result.put(category, summarize(category, histogram)));
+        return result;
+    }
+
+    private Map<Long, PercentileSummaryDTO> summarizeByStaff(Map<Long, LogHistogram> histograms) {
+        Map<Long, PercentileSummaryDTO> result = new TreeMap<>();
+        histograms.forEach((staffId, histogram) -> result.put(staffId, summarize(staffNames.get(staffId), histogram)));
+        return result;
+    }
+
+    private PercentileSummaryDTO summarize(String label, LogHistogram histogram) {
+        LogHistogram snapshot = histogram.copy();
+        return new PercentileSummaryDTO(
+                label,
+                snapshot.getTotalCount(),
+                toHours(snapshot.valueAtPercentile(50)),
+                toHours(snapshot.valueAtPercentile(90)),
+                toHours(snapshot.valueAtPercentile(99)),
+                toHours(snapshot.getMaxValue()),
+                toHours(snapshot.getMean())
+        );
+    }
+
+    private static double toHours(double seconds) {
+        return Math.round(seconds / SECONDS_PER_HOUR * 100.0) / 100.0;
+    }
+
+    private static LogHistogram newHistogram() {
+        return new LogHistogram(PRECISION_BITS, MAX_TRACKABLE_SECONDS);
+    }
+}
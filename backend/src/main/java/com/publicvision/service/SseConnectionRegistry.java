@@ -0,0 +1,520 @@
+package com.publicvision.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Registry of open SSE connections. A user may hold several connections per
+ * stream (one per tab), all connections get a heartbeat from one shared
+ * scheduled task, and connections that fail, stall or go quiet are evicted.
+ *
+ * Sending never blocks the caller: every connection has a bounded send queue
+ * that is drained on a small dispatch pool. When a queue is full the
+ * slow-consumer policy either drops the new event or disconnects the client.
+ *
+ * A write that blocks past the slow-send threshold is cut off without
+ * waiting for it to return: the connection is unregistered, so it gets no
+ * more events, and the pool gains a thread for as long as the blocked write
+ * holds one, so a few stuck clients cannot stall delivery to everyone else.
+ */
+@Service
+public class SseConnectionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseConnectionRegistry.class);
+
+    public static final String NOTIFICATIONS = "notifications";
+    public static final String STATISTICS = "statistics";
+
+    public enum SlowConsumerPolicy {
+        DROP, DISCONNECT
+    }
+
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.sse.slow-send-threshold-ms:2000}")
+    private long slowSendThresholdMs;
+
+    @Value("${app.sse.stale-after-ms:45000}")
+    private long staleAfterMs;
+
+    @Value("${app.sse.send-queue-capacity:100}")
+    private int sendQueueCapacity;
+
+    @Value("${app.sse.slow-consumer-policy:DROP}")
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    @Value("${app.sse.stalled-write-threads:4}")
+    private int maxStalledWriteThreads;
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor dispatchExecutor;
+    private final AtomicLong connectionSequence = new AtomicLong();
+    private final AtomicInteger queuedEvents = new AtomicInteger();
+    private final Map<Long, SseConnection> connections = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Timer> deliveryTimers = new ConcurrentHashMap<>();
+    private final Counter droppedEvents;
+    private final Counter evictedConnections;
+    // Extra dispatch threads standing in for threads held by stalled writes
+    private int stalledWriteThreads;
+
+    @Autowired
+    public SseConnectionRegistry(MeterRegistry meterRegistry,
+            @Value("${app.sse.dispatch-threads:4}") int dispatchThreads,
+            @Value("${app.sse.dispatch-queue-capacity:10000}") int dispatchQueueCapacity) {
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatchExecutor = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(dispatchQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "sse-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        for (String stream : new String[]{NOTIFICATIONS, STATISTICS}) {
+            Gauge.builder("sse.connections.active", this, r -> r.countConnections(stream))
+                    .tag("stream", stream)
+                    .description("Open SSE connections")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("sse.connections.users", connectionsByUser, Map::size)
+                .description("Users with at least one open SSE connection")
+                .register(meterRegistry);
+        Gauge.builder("sse.send.queue.depth", queuedEvents, AtomicInteger::get)
+                .description("Events waiting in per-connection send queues")
+                .register(meterRegistry);
+        Gauge.builder("sse.dispatch.queue.depth", dispatchExecutor, e -> e.getQueue().size())
+                .description("Connections waiting for a dispatch thread")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("sse.events.dropped")
+                .description("Events dropped because a connection's send queue was full")
+                .register(meterRegistry);
+        this.evictedConnections = Counter.builder("sse.connections.evicted")
+                .description("Connections closed because they failed, stalled or fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * An open SSE connection with its own send queue
+     */
+    public static class SseConnection {
+
+        private final long id;
+        private final Long userId;
+        private final String stream;
+        private final SseEmitter emitter;
+        private final long openedAt = System.currentTimeMillis();
+        private volatile long lastSuccessfulSend = openedAt;
+        private volatile boolean closed;
+        // Start of the write in progress, 0 when idle
+        private volatile long writeStartedAt;
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private final AtomicBoolean compensated = new AtomicBoolean();
+        private final Queue<PendingEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        SseConnection(long id, Long userId, String stream, SseEmitter emitter) {
+            this.id = id;
+            this.userId = userId;
+            this.stream = stream;
+            this.emitter = emitter;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getStream() {
+            return stream;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        public long getOpenedAt() {
+            return openedAt;
+        }
+
+        public int getQueuedEvents() {
+            return queued.get();
+        }
+    }
+
+    private static class PendingEvent {
+
+        private final SseEmitter.SseEventBuilder event;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private final boolean heartbeat;
+
+        PendingEvent(SseEmitter.SseEventBuilder event, boolean heartbeat) {
+            this.event = event;
+            this.heartbeat = heartbeat;
+        }
+    }
+
+    /**
+     * Opens a new connection and queues the initial event on it
+     *
+     * @param userId Owner of the connection, or null for anonymous broadcast streams
+     * @param stream Stream name
+     * @param initialEvent Event sent right after registration
+     * @return SSE emitter for the connection
+     */
+    public SseEmitter register(Long userId, String stream, SseEmitter.SseEventBuilder initialEvent) {
+        return register(userId, stream, initialEvent, Collections::emptyList);
+    }
+
+    /**
+     * Opens a new connection, queues the initial event and then the replayed
+     * events on it. The replay is computed only after the connection receives
+     * live events, so nothing can fall into the gap between the two; an event
+     * may arrive both live and replayed, and clients dedupe by event id.
+     *
+     * @param userId Owner of the connection, or null for anonymous broadcast streams
+     * @param stream Stream name
+     * @param initialEvent Event sent right after registration
+     * @param replay Supplies events the client missed while disconnected
+     * @return SSE emitter for the connection
+     */
+    public SseEmitter register(Long userId, String stream, SseEmitter.SseEventBuilder initialEvent,
+            Supplier<List<SseEmitter.SseEventBuilder>> replay) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        SseConnection connection = new SseConnection(connectionSequence.incrementAndGet(), userId, stream, emitter);
+
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(e -> unregister(connection));
+
+        enqueue(connection, new PendingEvent(initialEvent, false));
+        connections.put(connection.id, connection);
+        if (userId != null) {
+            Set<SseConnection> userConnections = connectionsByUser.compute(userId, (id, set) -> {
+                Set<SseConnection> result = set != null ? set : ConcurrentHashMap.newKeySet();
+                result.add(connection);
+                return result;
+            });
+            enforceUserLimit(userConnections, stream);
+        }
+
+        for (SseEmitter.SseEventBuilder event : replay.get()) {
+            enqueue(connection, new PendingEvent(event, false));
+        }
+        return emitter;
+    }
+
+    /**
+     * Queues an event for every connection a user has open on a stream
+     */
+    public void sendToUser(Long userId, String stream, String eventName, Object data) {
+        sendToUser(userId, stream, eventName, data, null);
+    }
+
+    /**
+     * Queues an event with an SSE id for every connection a user has open on
+     * a stream. Browsers send the last id they saw back as Last-Event-ID.
+     */
+    public void sendToUser(Long userId, String stream, String eventName, Object data, String eventId) {
+        Set<SseConnection> userConnections = connectionsByUser.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (SseConnection connection : userConnections) {
+            if (connection.stream.equals(stream)) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name(eventName).data(data);
+                if (eventId != null) {
+                    event.id(eventId);
+                }
+                enqueue(connection, new PendingEvent(event, false));
+            }
+        }
+    }
+
+    /**
+     * Queues an event for every connection on a stream
+     */
+    public void broadcast(String stream, String eventName, Object data) {
+        for (SseConnection connection : connections.values()) {
+            if (connection.stream.equals(stream)) {
+                enqueue(connection, new PendingEvent(SseEmitter.event().name(eventName).data(data), false));
+            }
+        }
+    }
+
+    /**
+     * @return Number of open connections on a stream
+     */
+    public long countConnections(String stream) {
+        return connections.values().stream().filter(c -> c.stream.equals(stream)).count();
+    }
+
+    /**
+     * @return Whether the user has any open connection
+     */
+    public boolean isConnected(Long userId) {
+        Set<SseConnection> userConnections = connectionsByUser.get(userId);
+        return userConnections != null && !userConnections.isEmpty();
+    }
+
+    /**
+     * Shared heartbeat: queues a comment line on every idle connection so
+     * proxies keep it open and dead peers are detected, evicts stale
+     * connections, and restarts any drain that was rejected by a saturated
+     * dispatch pool.
+     */
+    @Scheduled(fixedRateString = "${app.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (SseConnection connection : connections.values()) {
+            if (now - connection.lastSuccessfulSend > staleAfterMs) {
+                logger.debug("Evicting stale SSE connection {} of user {}", connection.id, connection.userId);
+                evict(connection);
+            } else if (connection.queued.get() == 0) {
+                enqueue(connection, new PendingEvent(SseEmitter.event().comment("heartbeat"), true));
+            } else {
+                scheduleDrain(connection);
+            }
+        }
+    }
+
+    /**
+     * Cuts off connections whose current write has passed the slow-send
+     * threshold
+     */
+    @Scheduled(fixedDelayString = "${app.sse.write-deadline-check-ms:500}")
+    public void checkWriteDeadlines() {
+        long now = System.currentTimeMillis();
+        for (SseConnection connection : connections.values()) {
+            if (isWriteOverdue(connection, now)) {
+                stall(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+    }
+
+    private void enqueue(SseConnection connection, PendingEvent event) {
+        if (connection.closed) {
+            return;
+        }
+        if (isWriteOverdue(connection, System.currentTimeMillis())) {
+            stall(connection);
+            return;
+        }
+        if (connection.queued.incrementAndGet() > sendQueueCapacity) {
+            connection.queued.decrementAndGet();
+            if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) {
+                logger.debug("Disconnecting SSE connection {} of user {}: send queue full", connection.id, connection.userId);
+                evict(connection);
+            } else {
+                droppedEvents.increment();
+            }
+            return;
+        }
+        queuedEvents.incrementAndGet();
+        connection.queue.offer(event);
+        if (connection.closed) {
+            // Closed while queueing; release what unregister may have missed
+            discardQueue(connection);
+            return;
+        }
+        scheduleDrain(connection);
+    }
+
+    private void scheduleDrain(SseConnection connection) {
+        if (connection.closed || !connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatchExecutor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // Dispatch pool saturated; the next heartbeat retries
+            connection.draining.set(false);
+        }
+    }
+
+    private void drain(SseConnection connection) {
+        try {
+            PendingEvent pending;
+            while (!connection.closed && (pending = connection.queue.poll()) != null) {
+                connection.queued.decrementAndGet();
+                queuedEvents.decrementAndGet();
+                if (!write(connection, pending)) {
+                    return;
+                }
+            }
+        } finally {
+            connection.draining.set(false);
+        }
+        if (!connection.closed && !connection.queue.isEmpty()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private boolean write(SseConnection connection, PendingEvent pending) {
+        long start = System.currentTimeMillis();
+        connection.writeStartedAt = start;
+        try {
+            connection.emitter.send(pending.event);
+        } catch (IOException | IllegalStateException e) {
+            evict(connection);
+            return false;
+        } finally {
+            connection.writeStartedAt = 0;
+            if (connection.compensated.compareAndSet(true, false)) {
+                releaseStalledWriteThread();
+            }
+        }
+        if (connection.stalled.get()) {
+            // Cut off while blocked; the emitter can only be completed now
+            evict(connection);
+            return false;
+        }
+        long end = System.currentTimeMillis();
+        if (!pending.heartbeat) {
+            deliveryTimer(connection.stream).record(System.nanoTime() - pending.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        }
+        if (end - start > slowSendThresholdMs) {
+            logger.debug("Evicting slow SSE connection {} of user {} ({} ms)", connection.id, connection.userId, end - start);
+            evict(connection);
+            return false;
+        }
+        connection.lastSuccessfulSend = end;
+        return true;
+    }
+
+    private boolean isWriteOverdue(SseConnection connection, long now) {
+        long startedAt = connection.writeStartedAt;
+        return startedAt != 0 && now - startedAt > slowSendThresholdMs;
+    }
+
+    /**
+     * Unregisters a connection whose write is blocked and lends the pool a
+     * thread until the write returns. The emitter is completed by the
+     * blocked thread, since completing waits for the write.
+     */
+    private void stall(SseConnection connection) {
+        if (!connection.stalled.compareAndSet(false, true)) {
+            return;
+        }
+        logger.debug("Cutting off stalled SSE connection {} of user {}", connection.id, connection.userId);
+        if (!connection.closed) {
+            evictedConnections.increment();
+        }
+        unregister(connection);
+        synchronized (dispatchExecutor) {
+            if (stalledWriteThreads < maxStalledWriteThreads && connection.writeStartedAt != 0) {
+                stalledWriteThreads++;
+                dispatchExecutor.setMaximumPoolSize(dispatchExecutor.getMaximumPoolSize() + 1);
+                dispatchExecutor.setCorePoolSize(dispatchExecutor.getCorePoolSize() + 1);
+                connection.compensated.set(true);
+            }
+        }
+        if (connection.writeStartedAt == 0 && connection.compensated.compareAndSet(true, false)) {
+            // The write returned meanwhile
+            releaseStalledWriteThread();
+        }
+    }
+
+    private void releaseStalledWriteThread() {
+        synchronized (dispatchExecutor) {
+            stalledWriteThreads--;
+            dispatchExecutor.setCorePoolSize(dispatchExecutor.getCorePoolSize() - 1);
+            dispatchExecutor.setMaximumPoolSize(dispatchExecutor.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private Timer deliveryTimer(String stream) {
+        return deliveryTimers.computeIfAbsent(stream, s -> Timer.builder("sse.delivery.latency")
+                .tag("stream", s)
+                .description("Time from queueing an event to writing it to the client")
+                .register(meterRegistry));
+    }
+
+    private void enforceUserLimit(Set<SseConnection> userConnections, String stream) {
+        while (userConnections.stream().filter(c -> c.stream.equals(stream)).count() > maxConnectionsPerUser) {
+            userConnections.stream()
+                    .filter(c -> c.stream.equals(stream))
+                    .min(Comparator.comparingLong(SseConnection::getOpenedAt))
+                    .ifPresent(this::evict);
+        }
+    }
+
+    private void evict(SseConnection connection) {
+        if (!connection.closed) {
+            evictedConnections.increment();
+        }
+        unregister(connection);
+        try {
+            connection.emitter.complete();
+        } catch (Exception ignored) {
+            // connection already closed
+        }
+    }
+
+    private void unregister(SseConnection connection) {
+        connection.closed = true;
+        connections.remove(connection.id);
+        if (connection.userId != null) {
+            connectionsByUser.computeIfPresent(connection.userId, (id, set) -> {
+                set.remove(connection);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        discardQueue(connection);
+    }
+
+    private void discardQueue(SseConnection connection) {
+        int discarded = 0;
+        while (connection.queue.poll() != null) {
+            discarded++;
+        }
+        if (discarded > 0) {
+            connection.queued.addAndGet(-discarded);
+            queuedEvents.addAndGet(-discarded);
+        }
+    }
+}
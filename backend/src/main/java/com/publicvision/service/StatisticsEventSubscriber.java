@@ -0,0 +1,34 @@
+package com.publicvision.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.publicvision.entity.ComplaintEvent;
+
+/**
+ * Keeps the live statistics counters in step with complaint events from
+ * every node
+ */
+@Component
+public class StatisticsEventSubscriber implements ComplaintEventSubscriber {
+
+    @Autowired
+    private StatisticsStreamService statisticsStreamService;
+
+    @Override
+    public String getName() {
+        return "statistics";
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return true;
+    }
+
+    @Override
+    public void onEvents(List<ComplaintEvent> events) {
+        statisticsStreamService.onEvents(events);
+    }
+}
@@ -0,0 +1,321 @@
+package com.publicvision.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.publicvision.dto.StatisticsDTO;
+import com.publicvision.dto.StatisticsDeltaDTO;
+import com.publicvision.entity.ComplaintEvent;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.repository.ComplaintEventRepository;
+import com.publicvision.repository.ComplaintRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps live complaint counters in memory and streams them to dashboards over
+ * SSE. Subscribers get a full snapshot on connect and then coalesced delta
+ * events from a single shared producer, so open dashboards never trigger the
+ * statistics count queries themselves.
+ *
+ * Counters move with the complaint events outbox. A resync reads the counts
+ * and the newest event ids in one database snapshot without holding the
+ * counter lock. Events arriving later are skipped if the snapshot already
+ * contains them. Ids below the newest one that were still uncommitted are
+ * tracked one by one, like the event bus does, and applied when they
+ * arrive. Events applied while the snapshot was read are replayed on top of
+ * it unless it contains them. So no event is lost or counted twice.
+ */
+@Service
+public class StatisticsStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsStreamService.class);
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintEventRepository complaintEventRepository;
+
+    @Autowired
+    private SseConnectionRegistry sseConnectionRegistry;
+
+    // Ids below the newest event scanned for ones the snapshot does not contain yet
+    @Value("${app.statistics.stream.gap-scan-ids:1000}")
+    private long gapScanIds;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    // Serializes resyncs; never held together with lock while querying
+    private final Object resyncLock = new Object();
+
+    // Live counters, pending deltas and event positions, all guarded by lock
+    private final Object lock = new Object();
+    private long totalComplaints;
+    private final Map<String, Long> complaintsByStatus = new HashMap<>();
+    private final Map<String, Long> complaintsByCategory = new HashMap<>();
+    private long pendingTotal;
+    private final Map<String, Long> pendingByStatus = new HashMap<>();
+    private final Map<String, Long> pendingByCategory = new HashMap<>();
+    private long sequence;
+    // Events the last resync already counted: every id up to skipThrough except those in missingEventIds
+    private long skipThrough = -1;
+    private final Set<Long> missingEventIds = new HashSet<>();
+    // Events applied while a resync reads its snapshot; null when none runs
+    private List<ComplaintEvent> appliedDuringResync;
+
+    @Autowired
+    public StatisticsStreamService(PlatformTransactionManager transactionManager) {
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Loads the counters once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCounters() {
+        resync();
+    }
+
+    /**
+     * Registers a dashboard and sends it the current snapshot
+     *
+     * @param userId User opening the dashboard
+     * @return SSE emitter for the subscriber
+     */
+    public SseEmitter subscribe(Long userId) {
+        return sseConnectionRegistry.register(userId, SseConnectionRegistry.STATISTICS,
+                SseEmitter.event().name("SNAPSHOT").data(getSnapshot()));
+    }
+
+    /**
+     * Applies committed complaint events to the counters, skipping the ones
+     * the last resync already counted
+     *
+     * @param events Events in outbox order
+     */
+    public void onEvents(List<ComplaintEvent> events) {
+        synchronized (lock) {
+            for (ComplaintEvent event : events) {
+                long id = event.getId();
+                if (id <= skipThrough && !missingEventIds.remove(id)) {
+                    continue;
+                }
+                apply(event);
+                if (appliedDuringResync != null) {
+                    appliedDuringResync.add(event);
+                }
+            }
+        }
+    }
+
+    private void apply(ComplaintEvent event) {
+        switch (event.getType()) {
+            case CREATED -> {
+                totalComplaints++;
+                pendingTotal++;
+                increment(event.getNewStatus().name(), 1, complaintsByStatus, pendingByStatus);
+                increment(event.getCategory(), 1, complaintsByCategory, pendingByCategory);
+            }
+            case STATUS_CHANGED, ESCALATED -> {
+                if (event.getOldStatus() != event.getNewStatus()) {
+                    increment(event.getOldStatus().name(), -1, complaintsByStatus, pendingByStatus);
+                    increment(event.getNewStatus().name(), 1, complaintsByStatus, pendingByStatus);
+                }
+            }
+            default -> {
+                // Merges do not change the counters
+            }
+        }
+    }
+
+    /**
+     * Builds a statistics snapshot from the in-memory counters
+     *
+     * @return Current statistics
+     */
+    public StatisticsDTO getSnapshot() {
+        synchronized (lock) {
+            return snapshot();
+        }
+    }
+
+    // Caller holds lock
+    private StatisticsDTO snapshot() {
+        StatisticsDTO dto = new StatisticsDTO();
+        dto.setTotalComplaints(totalComplaints);
+        dto.setComplaintsByStatus(new HashMap<>(complaintsByStatus));
+        dto.setComplaintsByCategory(new HashMap<>(complaintsByCategory));
+        Map<String, Long> byStatus = dto.getComplaintsByStatus();
+        dto.setPendingComplaints(byStatus.getOrDefault(ComplaintStatus.SUBMITTED.name(), 0L));
+        dto.setInProgressComplaints(byStatus.getOrDefault(ComplaintStatus.IN_PROGRESS.name(), 0L));
+        dto.setResolvedComplaints(byStatus.getOrDefault(ComplaintStatus.RESOLVED.name(), 0L));
+        dto.setEscalatedComplaints(byStatus.getOrDefault(ComplaintStatus.ESCALATED.name(), 0L));
+        // There is no rejected status yet
+        dto.setRejectedComplaints(0L);
+        return dto;
+    }
+
+    public long getTotalCount() {
+        synchronized (lock) {
+            return totalComplaints;
+        }
+    }
+
+    public long getCountByStatus(ComplaintStatus status) {
+        synchronized (lock) {
+            return complaintsByStatus.getOrDefault(status.name(), 0L);
+        }
+    }
+
+    public long getCountByCategory(String category) {
+        synchronized (lock) {
+            return complaintsByCategory.getOrDefault(category, 0L);
+        }
+    }
+
+    /**
+     * Shared producer: drains the accumulated deltas into a single event and
+     * fans it out to every subscriber. Runs at most once per interval.
+     */
+    @Scheduled(fixedRateString = "${app.statistics.stream.min-event-interval-ms:500}")
+    public void flushDeltas() {
+        StatisticsDeltaDTO delta;
+        synchronized (lock) {
+            if (pendingTotal == 0 && pendingByStatus.isEmpty() && pendingByCategory.isEmpty()) {
+                return;
+            }
+            delta = new StatisticsDeltaDTO(++sequence, pendingTotal,
+                    new HashMap<>(pendingByStatus), new HashMap<>(pendingByCategory));
+            pendingTotal = 0;
+            pendingByStatus.clear();
+            pendingByCategory.clear();
+        }
+        broadcast("DELTA", delta);
+    }
+
+    /**
+     * Reloads the counters from the database to correct any drift and pushes
+     * a fresh snapshot to subscribers. The count queries run without the
+     * counter lock, so events keep flowing while they do.
+     */
+    @Scheduled(initialDelayString = "${app.statistics.stream.resync-interval-ms:600000}",
+            fixedDelayString = "${app.statistics.stream.resync-interval-ms:600000}")
+    public void resync() {
+        synchronized (resyncLock) {
+            synchronized (lock) {
+                appliedDuringResync = new ArrayList<>();
+            }
+            Snapshot snapshot;
+            try {
+                snapshot = snapshotTransaction.execute(status -> readSnapshot());
+            } catch (Exception e) {
+                synchronized (lock) {
+                    appliedDuringResync = null;
+                }
+                logger.warn("Could not load statistics counters", e);
+                return;
+            }
+            StatisticsDTO dto;
+            synchronized (lock) {
+                applySnapshot(snapshot);
+                dto = snapshot();
+            }
+            if (sseConnectionRegistry.countConnections(SseConnectionRegistry.STATISTICS) > 0) {
+                broadcast("SNAPSHOT", dto);
+            }
+        }
+    }
+
+    /**
+     * Reads the counts and the event positions they include; runs in a
+     * repeatable-read transaction, so all of them come from the same snapshot
+     */
+    private Snapshot readSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.total = complaintRepository.count();
+        for (Object[] row : complaintRepository.countByStatus()) {
+            snapshot.byStatus.put(((ComplaintStatus) row[0]).name(), (Long) row[1]);
+        }
+        for (Object[] row : complaintRepository.countByCategory()) {
+            snapshot.byCategory.put((String) row[0], (Long) row[1]);
+        }
+
+        // Ids below the newest event that the snapshot lacks were still uncommitted
+        snapshot.maxEventId = complaintEventRepository.findMaxId();
+        long scanFrom = Math.max(0, snapshot.maxEventId - gapScanIds);
+        Set<Long> visible = new HashSet<>(complaintEventRepository.findIdsAfter(scanFrom));
+        for (long id = scanFrom + 1; id < snapshot.maxEventId; id++) {
+            if (!visible.contains(id)) {
+                snapshot.missingEventIds.add(id);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replaces the counters with the snapshot, then replays the events
+     * applied meanwhile that the snapshot does not contain. Caller holds lock.
+     */
+    private void applySnapshot(Snapshot snapshot) {
+        List<ComplaintEvent> applied = appliedDuringResync;
+        appliedDuringResync = null;
+
+        totalComplaints = snapshot.total;
+        complaintsByStatus.clear();
+        complaintsByStatus.putAll(snapshot.byStatus);
+        complaintsByCategory.clear();
+        complaintsByCategory.putAll(snapshot.byCategory);
+        skipThrough = snapshot.maxEventId;
+        missingEventIds.clear();
+        missingEventIds.addAll(snapshot.missingEventIds);
+
+        for (ComplaintEvent event : applied) {
+            long id = event.getId();
+            if (id > skipThrough || missingEventIds.remove(id)) {
+                apply(event);
+            }
+        }
+        // Subscribers get the counters as a whole snapshot
+        pendingTotal = 0;
+        pendingByStatus.clear();
+        pendingByCategory.clear();
+    }
+
+    private void broadcast(String eventName, Object data) {
+        sseConnectionRegistry.broadcast(SseConnectionRegistry.STATISTICS, eventName, data);
+    }
+
+    private static void increment(String key, long amount, Map<String, Long> counters, Map<String, Long> pending) {
+        if (key == null) {
+            return;
+        }
+        counters.merge(key, amount, Long::sum);
+        pending.merge(key, amount, Long::sum);
+    }
+
+    private static final class Snapshot {
+        private long total;
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final Map<String, Long> byCategory = new HashMap<>();
+        private long maxEventId;
+        private final Set<Long> missingEventIds = new HashSet<>();
+    }
+}
@@ -0,0 +1,317 @@
+package com.publicvision.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.publicvision.entity.RevokedToken;
+import com.publicvision.entity.UserTokenEpoch;
+import com.publicvision.repository.RevokedTokenRepository;
+import com.publicvision.repository.UserTokenEpochRepository;
+import com.publicvision.security.JwtTokenProvider;
+import com.publicvision.util.BloomFilter;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Revokes access tokens before they expire, either one token by its jti or
+ * every token of a user issued before a "not before" time.
+ *
+ * Revocations are persisted and mirrored in memory: a Bloom filter over the
+ * revoked jtis backed by an exact map, and a per-user epoch map, so the JWT
+ * filter's check is O(1) and usually a single filter probe. Entries are
+ * dropped once the tokens they cover would have expired. New revocations
+ * reach the other nodes through the cluster event bus; a periodic reload
+ * from the tables catches up on any the bus dropped.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    public static final String USER_ID_CLAIM = "uid";
+
+    private static final String REVOCATION_TOPIC = "auth.revocation";
+
+    private static final String CLEANUP_JOB = "token-revocation-cleanup";
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserTokenEpochRepository userTokenEpochRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.auth.revocation.reload-interval-ms:60000}")
+    private long reloadIntervalMs;
+
+    @Value("${app.auth.revocation.bloom.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${app.auth.revocation.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Revoked jti -> token expiry (epoch ms); the filter holds every key of the map
+    private volatile Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    private volatile BloomFilter revokedFilter;
+
+    private volatile Map<Long, Epoch> userEpochs = new ConcurrentHashMap<>();
+
+    // Serializes revocations with the merge and swap of a reload
+    private final Object lock = new Object();
+
+    @Autowired
+    public TokenRevocationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void subscribeRevocations() {
+        clusterEventBus.subscribe(REVOCATION_TOPIC, Revocation.class, this::apply);
+    }
+
+    /**
+     * Loads persisted revocations once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        reload();
+    }
+
+    /**
+     * Checks verified claims against the deny-list
+     *
+     * @param claims Verified token claims
+     * @return true when the token has been revoked
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        BloomFilter filter = revokedFilter;
+        if (jti != null && filter != null && filter.mightContain(jti) && revokedJtis.containsKey(jti)) {
+            return true;
+        }
+
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        if (userId == null || claims.getIssuedAt() == null) {
+            return false;
+        }
+        Epoch epoch = userEpochs.get(userId);
+        return epoch != null && claims.getIssuedAt().getTime() < epoch.notBefore;
+    }
+
+    /**
+     * Revokes a single token, e.g. on logout
+     *
+     * @param jti Token id
+     * @param expiration Token expiry; the revocation is kept until then
+     */
+    @Transactional
+    public void revokeToken(String jti, Date expiration) {
+        if (jti == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        RevokedToken revoked = new RevokedToken();
+        revoked.setJti(jti);
+        revoked.setExpiresAt(toLocalDateTime(expiration.getTime()));
+        revokedTokenRepository.save(revoked);
+
+        clusterEventBus.publish(REVOCATION_TOPIC, new Revocation(jti, null, null, expiration.getTime()));
+    }
+
+    /**
+     * Revokes every token of a user issued so far, e.g. after a password
+     * change. JWT issue times have second precision, so the cut-off is the
+     * start of the current second: a token issued right after this call must
+     * stay valid.
+     *
+     * @param userId User whose tokens are revoked
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        long now = System.currentTimeMillis();
+        long notBefore = now - now % 1000;
+        long expiresAt = now + jwtTokenProvider.getJwtExpiration();
+
+        UserTokenEpoch epoch = new UserTokenEpoch();
+        epoch.setUserId(userId);
+        epoch.setNotBefore(toLocalDateTime(notBefore));
+        epoch.setExpiresAt(toLocalDateTime(expiresAt));
+        userTokenEpochRepository.save(epoch);
+
+        clusterEventBus.publish(REVOCATION_TOPIC, new Revocation(null, userId, notBefore, expiresAt));
+    }
+
+    /**
+     * Deletes expired revocations and rebuilds the in-memory structures from
+     * the tables, merged with entries added since the last load
+     */
+    @Scheduled(initialDelayString = "${app.auth.revocation.reload-interval-ms:60000}",
+            fixedDelayString = "${app.auth.revocation.reload-interval-ms:60000}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        LocalDateTime nowTime = toLocalDateTime(now);
+        try {
+            // The tables are shared; one node per interval deletes from them
+            jobLeaseService.runExclusive(CLEANUP_JOB, reloadIntervalMs,
+                    () -> transactionTemplate.executeWithoutResult(status -> {
+                        revokedTokenRepository.deleteExpired(nowTime);
+                        userTokenEpochRepository.deleteExpired(nowTime);
+                    }));
+
+            Map<String, Long> jtis = new ConcurrentHashMap<>();
+            for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(nowTime)) {
+                jtis.put(revoked.getJti(), toEpochMillis(revoked.getExpiresAt()));
+            }
+            Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+            for (UserTokenEpoch epoch : userTokenEpochRepository.findByExpiresAtAfter(nowTime)) {
+                epochs.put(epoch.getUserId(),
+                        new Epoch(toEpochMillis(epoch.getNotBefore()), toEpochMillis(epoch.getExpiresAt())));
+            }
+
+            // Keep revocations applied since the queries above. Holding the lock
+            // until the swap means none can land in the maps being replaced.
+            synchronized (lock) {
+                revokedJtis.forEach((jti, expiresAt) -> {
+                    if (expiresAt > now) {
+                        jtis.putIfAbsent(jti, expiresAt);
+                    }
+                });
+                userEpochs.forEach((userId, epoch) -> {
+                    if (epoch.expiresAt > now) {
+                        epochs.merge(userId, epoch, (a, b) -> a.notBefore >= b.notBefore ? a : b);
+                    }
+                });
+
+                BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, jtis.size() * 2),
+                        falsePositiveRate);
+                jtis.keySet().forEach(filter::add);
+
+                revokedJtis = jtis;
+                revokedFilter = filter;
+                userEpochs = epochs;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not reload token revocations", e);
+        }
+    }
+
+    private void apply(Revocation revocation) {
+        synchronized (lock) {
+            if (revocation.getJti() != null) {
+                addRevokedJti(revocation.getJti(), revocation.getExpiresAt());
+            } else {
+                userEpochs.merge(revocation.getUserId(),
+                        new Epoch(revocation.getNotBefore(), revocation.getExpiresAt()),
+                        (a, b) -> a.notBefore >= b.notBefore ? a : b);
+            }
+        }
+    }
+
+    private void addRevokedJti(String jti, long expiresAt) {
+        revokedJtis.put(jti, expiresAt);
+        BloomFilter filter = revokedFilter;
+        if (filter == null) {
+            filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+            revokedFilter = filter;
+        }
+        filter.add(jti);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A revocation as sent to other nodes: either a jti or a user's epoch
+     */
+    public static class Revocation {
+
+        private String jti;
+        private Long userId;
+        private Long notBefore;
+        private long expiresAt;
+
+        public Revocation() {
+        }
+
+        public Revocation(String jti, Long userId, Long notBefore, long expiresAt) {
+            this.jti = jti;
+            this.userId = userId;
+            this.notBefore = notBefore;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getJti() {
+            return jti;
+        }
+
+        public void setJti(String jti) {
+            this.jti = jti;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public Long getNotBefore() {
+            return notBefore;
+        }
+
+        public void setNotBefore(Long notBefore) {
+            this.notBefore = notBefore;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Epoch {
+
+        private final long notBefore;
+        private final long expiresAt;
+
+        Epoch(long notBefore, long expiresAt) {
+            this.notBefore = notBefore;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.publicvision.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.publicvision.repository.NotificationRepository;
+import com.publicvision.util.TransactionUtils;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory unread notification counters keyed by user id, so the count
+ * endpoint is a map lookup instead of a COUNT query.
+ *
+ * A counter is loaded from the database on first use and evicted after it
+ * has been idle for a while. Changes are applied after commit and pushed to
+ * the user's open SSE notification streams as an UNREAD_COUNT event. Changes
+ * for users without a loaded counter are ignored; their next read loads the
+ * committed value.
+ *
+ * A loaded count is only kept when no change for the user was in flight
+ * or started while it was read; otherwise the COUNT may already include a
+ * change whose after-commit update is still to come, and it is served
+ * once without being cached. Changes must be registered inside the
+ * transaction that makes them.
+ *
+ * Other nodes are told about each change through the cluster event bus;
+ * they drop their copy of the counter and, if the user has a stream open
+ * there, reload and push it.
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    public static final String UNREAD_COUNT_EVENT = "UNREAD_COUNT";
+
+    private static final String CHANGE_TOPIC = "notifications.unread";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SseConnectionRegistry sseConnectionRegistry;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${app.notifications.unread-cache.idle-ms:1800000}")
+    private long idleMs;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Changes per user, started and completed; kept a while after the last one completes
+    private final Map<Long, Changes> changes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribeChanges() {
+        clusterEventBus.subscribeRemote(CHANGE_TOPIC, UnreadChange.class, change -> {
+            Long userId = change.getUserId();
+            // Already committed on the other node; a load running now must not cache its count
+            changes.compute(userId, (id, existing) -> {
+                Changes userChanges = existing != null ? existing : new Changes();
+                userChanges.started.incrementAndGet();
+                userChanges.complete();
+                return userChanges;
+            });
+            counters.remove(userId);
+            if (sseConnectionRegistry.isConnected(userId)) {
+                pushCurrent(userId);
+            }
+        });
+    }
+
+    /**
+     * Returns the unread count of a user, loading it on first use
+     *
+     * @param userId Id of the user
+     * @return Number of unread notifications
+     */
+    public long getCount(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter == null) {
+            return load(userId);
+        }
+        counter.touch();
+        return counter.value.get();
+    }
+
+    /**
+     * Adds to a user's counter after commit, e.g. for new notifications
+     */
+    public void increment(Long userId, long amount) {
+        change(userId, v -> v + amount, false);
+    }
+
+    /**
+     * Subtracts from a user's counter after commit, never going below zero
+     */
+    public void decrement(Long userId, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        change(userId, v -> Math.max(0L, v - amount), false);
+    }
+
+    /**
+     * Resets a user's counter to zero after commit
+     */
+    public void reset(Long userId) {
+        change(userId, v -> 0L, true);
+    }
+
+    /**
+     * Sends the current count to a single user, e.g. when a stream opens
+     */
+    public void pushCurrent(Long userId) {
+        push(userId, getCount(userId));
+    }
+
+    /**
+     * Drops counters that have not been read for the idle period
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.unread-cache.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        Iterator<Counter> it = counters.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lastAccess < cutoff) {
+                it.remove();
+            }
+        }
+        for (Long userId : changes.keySet()) {
+            changes.computeIfPresent(userId, (id, userChanges) ->
+                    userChanges.isQuiet() && userChanges.lastCompletedAt < cutoff ? null : userChanges);
+        }
+    }
+
+    private long load(Long userId) {
+        Changes before = changes.get(userId);
+        long startedBefore = before != null ? before.started.get() : 0;
+        boolean quiet = before == null || before.isQuiet();
+        long count = notificationRepository.countByUserUserIdAndIsReadFalse(userId);
+        if (!quiet) {
+            return count;
+        }
+
+        // Checked under the key's lock, which after-commit updates also take
+        Counter counter = counters.compute(userId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            Changes after = changes.get(id);
+            boolean unchanged = after == before
+                    && (after == null || (after.isQuiet() && after.started.get() == startedBefore));
+            return unchanged ? new Counter(count) : null;
+        });
+        return counter != null ? counter.value.get() : count;
+    }
+
+    private void change(Long userId, LongUnaryOperator update, boolean pushWithoutCounter) {
+        Changes userChanges = changes.compute(userId, (id, existing) -> {
+            Changes registered = existing != null ? existing : new Changes();
+            registered.started.incrementAndGet();
+            return registered;
+        });
+        TransactionUtils.afterCompletion(() -> {
+            Counter counter = counters.computeIfPresent(userId, (id, existing) -> {
+                existing.value.updateAndGet(update);
+                return existing;
+            });
+            if (counter != null) {
+                push(userId, counter.value.get());
+            } else if (pushWithoutCounter) {
+                push(userId, update.applyAsLong(0L));
+            }
+        }, userChanges::complete);
+        clusterEventBus.publish(CHANGE_TOPIC, new UnreadChange(userId));
+    }
+
+    private void push(Long userId, long count) {
+        sseConnectionRegistry.sendToUser(userId, SseConnectionRegistry.NOTIFICATIONS, UNREAD_COUNT_EVENT, count);
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong value;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Counter(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    private static final class Changes {
+
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private volatile long lastCompletedAt = System.currentTimeMillis();
+
+        private void complete() {
+            lastCompletedAt = System.currentTimeMillis();
+            completed.incrementAndGet();
+        }
+
+        private boolean isQuiet() {
+            return completed.get() == started.get();
+        }
+    }
+
+    /**
+     * Payload of a counter change sent to other nodes
+     */
+    public static class UnreadChange {
+
+        private Long userId;
+
+        public UnreadChange() {
+        }
+
+        public UnreadChange(Long userId) {
+            this.userId = userId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -20,6 +20,15 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     public UserDTO getByEmail(String email) {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
         return UserDTO.from(user);
@@ -30,7 +39,9 @@ public class UserService {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
         user.setName(req.getName());
         user.setPhone(req.getPhone());
-        return UserDTO.from(userRepository.save(user));
+        User saved = userRepository.save(user);
+        userDetailsService.evict(email);
+        return UserDTO.from(saved);
     }
 
     @Transactional
@@ -41,5 +52,8 @@ public class UserService {
         }
         user.setPassword(passwordEncoder.encode(req.getNewPassword()));
         userRepository.save(user);
+        userDetailsService.evict(email);
+        refreshTokenService.revokeAll(user.getUserId());
+        tokenRevocationService.revokeAllForUser(user.getUserId());
     }
 }
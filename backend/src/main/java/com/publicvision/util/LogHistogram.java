@@ -0,0 +1,156 @@
+package com.publicvision.util;
+
+/**
+ * Fixed-memory histogram with log-linear buckets (HDR-style).
+ *
+ * Values below {@code 2^precisionBits} are counted exactly. Above that each
+ * power of two is split into {@code 2^(precisionBits - 1)} equal sub-buckets,
+ * so the relative error of any reported value is bounded by
+ * {@code 2^(1 - precisionBits)}. Counts live in a single primitive array,
+ * which makes recording O(1) and merging two histograms a plain array add.
+ */
+public class LogHistogram {
+
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+    private final long highestTrackableValue;
+    private final long[] counts;
+
+    private long totalCount;
+    private long sum;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    /**
+     * @param precisionBits Number of significant bits kept per value (2-16)
+     * @param highestTrackableValue Larger values are clamped to this value
+     */
+    public LogHistogram(int precisionBits, long highestTrackableValue) {
+        if (precisionBits < 2 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits must be between 2 and 16");
+        }
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("highestTrackableValue must be positive");
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.subBucketHalfCount = subBucketCount >> 1;
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new long[indexFor(highestTrackableValue) + 1];
+    }
+
+    /**
+     * Records a single value. Negative values are treated as zero.
+     *
+     * @param value Value to record
+     */
+    public synchronized void record(long value) {
+        long v = Math.min(Math.max(value, 0L), highestTrackableValue);
+        counts[indexFor(v)]++;
+        totalCount++;
+        sum += v;
+        if (v < minValue) {
+            minValue = v;
+        }
+        if (v > maxValue) {
+            maxValue = v;
+        }
+    }
+
+    /**
+     * Adds all counts of another histogram with identical layout into this one
+     *
+     * @param other Histogram to merge
+     */
+    public void merge(LogHistogram other) {
+        if (other.precisionBits != precisionBits || other.highestTrackableValue != highestTrackableValue) {
+            throw new IllegalArgumentException("Cannot merge histograms with different layouts");
+        }
+        LogHistogram source = other.copy();
+        synchronized (this) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += source.counts[i];
+            }
+            totalCount += source.totalCount;
+            sum += source.sum;
+            if (source.totalCount > 0) {
+                minValue = Math.min(minValue, source.minValue);
+                maxValue = Math.max(maxValue, source.maxValue);
+            }
+        }
+    }
+
+    /**
+     * @return A consistent point-in-time copy of this histogram
+     */
+    public synchronized LogHistogram copy() {
+        LogHistogram copy = new LogHistogram(precisionBits, highestTrackableValue);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.totalCount = totalCount;
+        copy.sum = sum;
+        copy.minValue = minValue;
+        copy.maxValue = maxValue;
+        return copy;
+    }
+
+    /**
+     * Returns the value at the given percentile by walking the cumulative
+     * bucket counts. No raw values are kept or sorted.
+     *
+     * @param percentile Percentile in the range 0-100
+     * @return Representative value of the bucket holding the percentile, or 0 if empty
+     */
+    public synchronized long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+        double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1L, (long) Math.ceil(p / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                long value = medianValueAt(i);
+                return Math.min(Math.max(value, minValue), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMinValue() {
+        return totalCount == 0 ? 0L : minValue;
+    }
+
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    private int indexFor(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - precisionBits + 1;
+        int subIndex = (int) (value >>> shift) - subBucketHalfCount;
+        return subBucketCount + (shift - 1) * subBucketHalfCount + subIndex;
+    }
+
+    private long medianValueAt(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int offset = index - subBucketCount;
+        int shift = offset / subBucketHalfCount + 1;
+        long lowest = (long) (offset % subBucketHalfCount + subBucketHalfCount) << shift;
+        return lowest + ((1L << shift) >> 1);
+    }
+}
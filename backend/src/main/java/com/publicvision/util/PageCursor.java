@@ -0,0 +1,71 @@
+package com.publicvision.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.publicvision.exception.BadRequestException;
+
+/**
+ * Position in a listing ordered by (timestamp desc, id desc), passed to
+ * clients as an opaque URL-safe string. The next page holds the rows that
+ * sort strictly after this position, so deep pages cost the same as the
+ * first one and rows inserted meanwhile never shift the page boundaries.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public PageCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return Opaque string form of this cursor
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}
+     *
+     * @param cursor Opaque cursor, may be null or blank for the first page
+     * @return The cursor, or null for the first page
+     * @throws BadRequestException If the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Start position for the first page: sorts before every real row
+     */
+    public static PageCursor first() {
+        return new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,30 @@
+package com.publicvision.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.publicvision.security.UserPrincipal;
+
+/**
+ * Helpers for reading the authenticated user from the security context
+ */
+public class SecurityUtils {
+
+    private SecurityUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns the principal of the current request, resolved once by the
+     * authentication filter
+     *
+     * @return Current user's principal
+     */
+    public static UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new RuntimeException("User not found");
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,83 @@
+package com.publicvision.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running side effects relative to the current transaction
+ */
+public class TransactionUtils {
+
+    private TransactionUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or immediately
+     * when no transaction is active. Rolled back work never triggers it.
+     *
+     * @param action Action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action once the current transaction has completed without
+     * committing. Does nothing when no transaction is active.
+     *
+     * @param action Action to run
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs onCommit once the current transaction commits, then runs always
+     * whether it committed or rolled back. Both run immediately when no
+     * transaction is active.
+     *
+     * @param onCommit Action to run on commit
+     * @param always Action to run once the transaction has completed
+     */
+    public static void afterCompletion(Runnable onCommit, Runnable always) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            onCommit.run();
+                        }
+                    } finally {
+                        always.run();
+                    }
+                }
+            });
+        } else {
+            try {
+                onCommit.run();
+            } finally {
+                always.run();
+            }
+        }
+    }
+}
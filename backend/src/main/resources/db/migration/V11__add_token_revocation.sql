@@ -0,0 +1,16 @@
+-- Access tokens revoked before expiry, by jti
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(36) PRIMARY KEY,
+    expires_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens(expires_at);
+
+-- Per-user cut-off: tokens issued before not_before are rejected
+CREATE TABLE IF NOT EXISTS user_token_epochs (
+    user_id BIGINT PRIMARY KEY,
+    not_before DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_user_token_epochs_expires ON user_token_epochs(expires_at);
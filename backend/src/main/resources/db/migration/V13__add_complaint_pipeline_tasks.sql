@@ -0,0 +1,14 @@
+-- Outbox for the staged post-submission pipeline of new complaints
+CREATE TABLE IF NOT EXISTS complaint_pipeline_tasks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    complaint_id BIGINT NOT NULL,
+    stage VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payload TEXT,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    available_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_pipeline_tasks_status_available ON complaint_pipeline_tasks(status, available_at, id);
@@ -0,0 +1,21 @@
+-- Outbox of complaint domain events; ids double as consumer offsets
+CREATE TABLE IF NOT EXISTS complaint_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    complaint_id BIGINT NOT NULL,
+    category VARCHAR(255),
+    old_status VARCHAR(20),
+    new_status VARCHAR(20),
+    related_complaint_id BIGINT,
+    actor_id BIGINT,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_complaint_events_created ON complaint_events(created_at);
+
+-- Delivery progress of shared event subscribers
+CREATE TABLE IF NOT EXISTS event_consumer_offsets (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,17 @@
+-- Events of the JDBC cluster event bus (app.cluster.event-bus=jdbc)
+CREATE TABLE IF NOT EXISTS cluster_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    origin_node VARCHAR(100) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_cluster_events_created ON cluster_events(created_at);
+
+-- Per-node cursors into cluster_events
+CREATE TABLE IF NOT EXISTS cluster_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    last_seen_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,7 @@
+-- Leases that keep scheduled jobs (and job shards) to one node at a time
+CREATE TABLE IF NOT EXISTS job_leases (
+    job_name VARCHAR(100) PRIMARY KEY,
+    holder VARCHAR(100) NOT NULL,
+    acquired_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Access path for the retention job: expired read notifications of one type
+CREATE INDEX idx_notifications_type_read_sent_id ON notifications(type, is_read, sent_at, notification_id);
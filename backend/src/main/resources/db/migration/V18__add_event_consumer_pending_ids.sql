@@ -0,0 +1,4 @@
+-- Event ids a shared subscriber passed while they were still uncommitted;
+-- last_event_id stays below the lowest of them
+ALTER TABLE event_consumer_offsets ADD COLUMN delivered_through BIGINT NULL;
+ALTER TABLE event_consumer_offsets ADD COLUMN pending_ids TEXT NULL;
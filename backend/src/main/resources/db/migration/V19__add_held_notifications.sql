@@ -0,0 +1,11 @@
+-- Notifications held back for a digest until their coalescing window ends
+CREATE TABLE IF NOT EXISTS held_notifications (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    complaint_id BIGINT,
+    type VARCHAR(20) NOT NULL,
+    message TEXT NOT NULL,
+    held_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_held_notifications_user_type ON held_notifications(user_id, type, id);
@@ -0,0 +1,4 @@
+-- Digest notifications merge several notifications of the same type for one user
+ALTER TABLE notifications
+ADD COLUMN digest_count INT,
+ADD COLUMN digest_complaint_ids TEXT;
@@ -0,0 +1,18 @@
+-- Access path for inbox, unread count and mark-read queries
+CREATE INDEX idx_notifications_user_read_sent ON notifications(user_id, is_read, sent_at);
+
+-- Read notifications moved out of the live table by the retention job
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    notification_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    complaint_id BIGINT,
+    message TEXT NOT NULL,
+    sent_at DATETIME(6) NOT NULL,
+    is_read BOOLEAN NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    digest_count INT,
+    digest_complaint_ids TEXT,
+    archived_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_notifications_archive_user_sent ON notifications_archive(user_id, sent_at);
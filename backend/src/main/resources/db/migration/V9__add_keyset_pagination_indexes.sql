@@ -0,0 +1,5 @@
+-- Keyset (cursor) pagination: (timestamp, id) order per listing
+CREATE INDEX idx_complaints_created_id ON complaints(created_at, complaint_id);
+CREATE INDEX idx_complaints_user_created_id ON complaints(user_id, created_at, complaint_id);
+CREATE INDEX idx_complaints_status_created_id ON complaints(status, created_at, complaint_id);
+CREATE INDEX idx_notifications_user_sent_id ON notifications(user_id, sent_at, notification_id);
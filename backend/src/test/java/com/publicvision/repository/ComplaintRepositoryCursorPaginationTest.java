@@ -0,0 +1,202 @@
+package com.publicvision.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.dto.CursorPageDTO;
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.entity.User;
+import com.publicvision.exception.BadRequestException;
+import com.publicvision.util.PageCursor;
+
+/**
+ * Walks the keyset-paginated complaint listings page by page. Several rows
+ * share a createdAt value, so the id tie-breaker decides the page
+ * boundaries; every row must show up exactly once and in listing order.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+class ComplaintRepositoryCursorPaginationTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User citizen;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        citizen = user("Citizen", "citizen@example.com");
+        User other = user("Other", "other@example.com");
+
+        // Three timestamps with three rows each, so ties straddle every page boundary
+        base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        for (int i = 0; i < 9; i++) {
+            complaint(i % 2 == 0 ? citizen : other, base.plusMinutes(i / 3),
+                    i % 3 == 0 ? ComplaintStatus.RESOLVED : ComplaintStatus.SUBMITTED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void allComplaintPagesCoverEveryRowOnce() {
+        List<ComplaintDTO> rows = walk((position, limit) -> complaintRepository.findPageAfterCursor(
+                position.getTimestamp(), position.getId(), PageRequest.of(0, limit)));
+
+        assertListing(rows, 9);
+    }
+
+    @Test
+    void userPagesCoverEveryRowOfTheUserOnce() {
+        List<ComplaintDTO> rows = walk((position, limit) -> complaintRepository.findPageByUserAfterCursor(
+                citizen, position.getTimestamp(), position.getId(), PageRequest.of(0, limit)));
+
+        assertListing(rows, 5);
+        assertTrue(rows.stream().allMatch(row -> "Citizen".equals(row.getUserFullName())));
+    }
+
+    @Test
+    void statusPagesCoverEveryRowWithTheStatusOnce() {
+        List<ComplaintDTO> rows = walk((position, limit) -> complaintRepository.findPageByStatusAfterCursor(
+                ComplaintStatus.SUBMITTED, position.getTimestamp(), position.getId(), PageRequest.of(0, limit)));
+
+        assertListing(rows, 6);
+        assertTrue(rows.stream().allMatch(row -> row.getStatus() == ComplaintStatus.SUBMITTED));
+    }
+
+    @Test
+    void rowsInsertedDuringTheWalkDoNotShiftLaterPages() {
+        List<ComplaintDTO> rows = new ArrayList<>();
+        PageCursor position = PageCursor.first();
+        boolean inserted = false;
+        while (true) {
+            CursorPageDTO<ComplaintDTO> page = page(position, (p, limit) -> complaintRepository.findPageAfterCursor(
+                    p.getTimestamp(), p.getId(), PageRequest.of(0, limit)));
+            rows.addAll(page.getContent());
+            if (!page.isHasNext()) {
+                break;
+            }
+            if (!inserted) {
+                // Sorts before every page already served, so it must not show up on a later one
+                complaint(citizen, base.plusHours(1), ComplaintStatus.SUBMITTED);
+                entityManager.flush();
+                inserted = true;
+            }
+            position = PageCursor.decode(page.getNextCursor());
+        }
+
+        assertListing(rows, 9);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        PageCursor cursor = new PageCursor(base, 42L);
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(base, decoded.getTimestamp());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String raw : List.of("no-separator", "not-a-date|5", base + "|not-a-number", base + "|", "|5")) {
+            String cursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            assertThrows(BadRequestException.class, () -> PageCursor.decode(cursor), raw);
+        }
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not base64!"));
+    }
+
+    private List<ComplaintDTO> walk(BiFunction<PageCursor, Integer, List<ComplaintDTO>> query) {
+        List<ComplaintDTO> rows = new ArrayList<>();
+        PageCursor position = PageCursor.first();
+        while (true) {
+            CursorPageDTO<ComplaintDTO> page = page(position, query);
+            assertTrue(page.getContent().size() <= PAGE_SIZE);
+            rows.addAll(page.getContent());
+            if (!page.isHasNext()) {
+                return rows;
+            }
+            position = PageCursor.decode(page.getNextCursor());
+        }
+    }
+
+    private CursorPageDTO<ComplaintDTO> page(PageCursor position,
+            BiFunction<PageCursor, Integer, List<ComplaintDTO>> query) {
+        // Same size + 1 fetch the service uses
+        return CursorPageDTO.fromRows(query.apply(position, PAGE_SIZE + 1), PAGE_SIZE,
+                ComplaintDTO::getCreatedAt, ComplaintDTO::getComplaintId, dto -> dto);
+    }
+
+    private static void assertListing(List<ComplaintDTO> rows, int expected) {
+        Set<Long> ids = new HashSet<>();
+        for (ComplaintDTO row : rows) {
+            assertTrue(ids.add(row.getComplaintId()), "Complaint " + row.getComplaintId() + " listed twice");
+        }
+        assertEquals(expected, rows.size());
+
+        List<ComplaintDTO> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(ComplaintDTO::getCreatedAt)
+                .thenComparing(ComplaintDTO::getComplaintId).reversed());
+        assertEquals(sorted, rows);
+    }
+
+    private void complaint(User owner, LocalDateTime createdAt, ComplaintStatus status) {
+        Complaint complaint = new Complaint();
+        complaint.setUser(owner);
+        complaint.setTitle("Complaint");
+        complaint.setDescription("Description");
+        complaint.setCategory("Roads");
+        complaint.setLocationLat(12.97);
+        complaint.setLocationLng(77.59);
+        complaint.setCreatedAt(createdAt);
+        complaint.setStatus(status);
+        entityManager.persist(complaint);
+    }
+
+    private User user(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user.setRole(User.Role.CITIZEN);
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,257 @@
+package com.publicvision.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.entity.Complaint;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+import com.publicvision.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements the complaint listing and detail queries issue, so a
+ * lazy association touched per row shows up as a failure instead of an N+1
+ * in production. Every listing query has a case: paged variants run one
+ * select plus the count, slice and keyset variants a single select.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+class ComplaintRepositoryStatementCountTest {
+
+    private static final int COMPLAINTS = 6;
+    // Odd rows are resolved and rated
+    private static final int RESOLVED = COMPLAINTS / 2;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User citizen;
+    private Long duplicateId;
+
+    @BeforeEach
+    void setUp() {
+        citizen = user("Citizen", "citizen@example.com", User.Role.CITIZEN);
+        User staff = user("Staff", "staff@example.com", User.Role.STAFF);
+
+        Complaint original = null;
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        for (int i = 0; i < COMPLAINTS; i++) {
+            // Distinct owners and assignees per row, so per-row lazy loads cannot hit the session cache
+            User owner = i == 0 ? citizen : user("Owner " + i, "owner" + i + "@example.com", User.Role.CITIZEN);
+            User assignee = i == 0 ? staff : user("Staff " + i, "staff" + i + "@example.com", User.Role.STAFF);
+
+            Complaint complaint = new Complaint();
+            complaint.setUser(owner);
+            complaint.setAssignedTo(assignee);
+            complaint.setTitle("Complaint " + i);
+            complaint.setDescription("Description " + i);
+            complaint.setCategory("Roads");
+            complaint.setLocationLat(12.97);
+            complaint.setLocationLng(77.59);
+            complaint.setCreatedAt(createdAt.plusMinutes(i));
+            if (i % 2 == 1) {
+                complaint.setStatus(ComplaintStatus.RESOLVED);
+                complaint.setRating(4);
+            }
+            if (original != null) {
+                complaint.setIsDuplicate(true);
+                complaint.setOriginalComplaint(original);
+            }
+            entityManager.persist(complaint);
+            if (original == null) {
+                original = complaint;
+            } else {
+                duplicateId = complaint.getComplaintId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfDtosRunsOneSelectAndOneCount() {
+        Page<ComplaintDTO> page = complaintRepository.findAllAsDTO(
+                PageRequest.of(0, 2, Sort.by("createdAt").descending()));
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(COMPLAINTS, page.getTotalElements());
+        page.getContent().forEach(this::readAssociations);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userPageOfDtosRunsOneSelectAndOneCount() {
+        // Page size 1 with one matching row: a full first page, so the count still runs
+        Page<ComplaintDTO> page = complaintRepository.findByUserAsDTO(citizen, PageRequest.of(0, 1));
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(1, page.getTotalElements());
+        page.getContent().forEach(this::readAssociations);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusPageOfDtosRunsOneSelectAndOneCount() {
+        Page<ComplaintDTO> page = complaintRepository.findByStatusAsDTO(ComplaintStatus.RESOLVED,
+                PageRequest.of(0, 2, Sort.by("createdAt").descending()));
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(RESOLVED, page.getTotalElements());
+        page.getContent().forEach(this::readAssociations);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void categoryPageOfDtosRunsOneSelectAndOneCount() {
+        Page<ComplaintDTO> page = complaintRepository.findByCategoryAsDTO("Roads",
+                PageRequest.of(0, 2, Sort.by("createdAt").descending()));
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(COMPLAINTS, page.getTotalElements());
+        page.getContent().forEach(this::readAssociations);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void ratingPageOfDtosRunsOneSelectAndOneCount() {
+        Page<ComplaintDTO> page = complaintRepository.findByRatingBetweenAndStatusAsDTO(4, 5,
+                ComplaintStatus.RESOLVED, PageRequest.of(0, 2, Sort.by("createdAt").descending()));
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(RESOLVED, page.getTotalElements());
+        page.getContent().forEach(this::readAssociations);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sliceOfDtosRunsOneSelect() {
+        Slice<ComplaintDTO> slice = complaintRepository.findSliceAsDTO(
+                PageRequest.of(0, COMPLAINTS - 1, Sort.by("createdAt").descending()));
+
+        assertEquals(COMPLAINTS - 1, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        slice.getContent().forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void filteredSliceOfDtosRunsOneSelect() {
+        Slice<ComplaintDTO> slice = complaintRepository.findSliceByUserAsDTO(citizen, PageRequest.of(0, 10));
+
+        assertEquals(1, slice.getContent().size());
+        assertFalse(slice.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusSliceOfDtosRunsOneSelect() {
+        Slice<ComplaintDTO> slice = complaintRepository.findSliceByStatusAsDTO(ComplaintStatus.RESOLVED,
+                PageRequest.of(0, RESOLVED - 1, Sort.by("createdAt").descending()));
+
+        assertEquals(RESOLVED - 1, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        slice.getContent().forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void categorySliceOfDtosRunsOneSelect() {
+        Slice<ComplaintDTO> slice = complaintRepository.findSliceByCategoryAsDTO("Roads",
+                PageRequest.of(0, COMPLAINTS - 1, Sort.by("createdAt").descending()));
+
+        assertEquals(COMPLAINTS - 1, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        slice.getContent().forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void keysetPageOfDtosRunsOneSelect() {
+        List<ComplaintDTO> rows = complaintRepository.findPageAfterCursor(
+                LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, COMPLAINTS));
+
+        assertEquals(COMPLAINTS, rows.size());
+        rows.forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userKeysetPageOfDtosRunsOneSelect() {
+        List<ComplaintDTO> rows = complaintRepository.findPageByUserAfterCursor(
+                citizen, LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, COMPLAINTS));
+
+        assertEquals(1, rows.size());
+        rows.forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusKeysetPageOfDtosRunsOneSelect() {
+        List<ComplaintDTO> rows = complaintRepository.findPageByStatusAfterCursor(
+                ComplaintStatus.RESOLVED, LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, COMPLAINTS));
+
+        assertEquals(RESOLVED, rows.size());
+        rows.forEach(this::readAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void detailEntityGraphLoadsAssociationsInOneSelect() {
+        Complaint complaint = complaintRepository.findWithAssociationsByComplaintId(duplicateId).orElseThrow();
+        ComplaintDTO dto = ComplaintDTO.from(complaint);
+
+        readAssociations(dto);
+        assertEquals("Complaint 0", complaint.getOriginalComplaint().getTitle());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private void readAssociations(ComplaintDTO dto) {
+        assertNotNull(dto.getUserFullName());
+        assertNotNull(dto.getAssignedToName());
+        if (Boolean.TRUE.equals(dto.getIsDuplicate())) {
+            assertNotNull(dto.getOriginalComplaintId());
+        }
+    }
+
+    private User user(String name, String email, User.Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,113 @@
+package com.publicvision.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.publicvision.entity.User;
+import com.publicvision.service.CustomUserDetailsService;
+import com.publicvision.service.TokenRevocationService;
+
+import io.jsonwebtoken.JwtParser;
+
+/**
+ * Authenticating a request must verify the token's signature at most once,
+ * and not at all for a token whose claims are already cached.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "citizen@example.com";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticationFilter filter;
+    private JwtParser parser;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "test-secret");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxSize", 100);
+        jwtTokenProvider.init();
+
+        // Counts signature verifications while still verifying for real
+        JwtParser realParser = (JwtParser) ReflectionTestUtils.getField(jwtTokenProvider, "parser");
+        parser = mock(JwtParser.class, AdditionalAnswers.delegatesTo(realParser));
+        ReflectionTestUtils.setField(jwtTokenProvider, "parser", parser);
+
+        principal = new UserPrincipal(42L, EMAIL, "Citizen", User.Role.CITIZEN, "hash");
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(principal);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(false);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenProvider", jwtTokenProvider);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestVerifiesTheSignatureOnce() throws Exception {
+        String token = jwtTokenProvider.generateToken(principal);
+
+        Authentication authentication = authenticate(token);
+
+        assertNotNull(authentication);
+        assertEquals(principal, authentication.getPrincipal());
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+
+    @Test
+    void laterRequestsWithTheSameTokenSkipVerification() throws Exception {
+        String token = jwtTokenProvider.generateToken(principal);
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(authenticate(token));
+        }
+
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+
+    @Test
+    void eachNewTokenIsVerifiedOnce() throws Exception {
+        String first = jwtTokenProvider.generateToken(principal);
+        String second = jwtTokenProvider.generateToken(principal);
+
+        assertNotNull(authenticate(first));
+        assertNotNull(authenticate(second));
+        assertNotNull(authenticate(first));
+
+        verify(parser, times(1)).parseClaimsJws(first);
+        verify(parser, times(1)).parseClaimsJws(second);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/complaints");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,110 @@
+package com.publicvision.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.publicvision.entity.User;
+import com.publicvision.service.CustomUserDetailsService;
+import com.publicvision.service.TokenRevocationService;
+
+/**
+ * The WebSocket handshake only succeeds with a valid, unrevoked token, and
+ * the session principal is the token's user.
+ */
+class JwtHandshakeInterceptorTest {
+
+    private static final String EMAIL = "citizen@example.com";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenRevocationService tokenRevocationService;
+    private JwtHandshakeInterceptor interceptor;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "test-secret");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxSize", 100);
+        jwtTokenProvider.init();
+
+        principal = new UserPrincipal(42L, EMAIL, "Citizen", User.Role.CITIZEN, "hash");
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(principal);
+        tokenRevocationService = mock(TokenRevocationService.class);
+
+        interceptor = new JwtHandshakeInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtTokenProvider", jwtTokenProvider);
+        ReflectionTestUtils.setField(interceptor, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(interceptor, "tokenRevocationService", tokenRevocationService);
+    }
+
+    @Test
+    void validTokenMakesTheUserTheSessionPrincipal() {
+        // Browsers pass the token as a query parameter
+        MockHttpServletRequest request = handshake();
+        request.setQueryString("token=" + jwtTokenProvider.generateToken(principal));
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertTrue(interceptor.beforeHandshake(new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(new MockHttpServletResponse()), null, attributes));
+
+        Authentication authentication = (Authentication) attributes.get(JwtHandshakeInterceptor.AUTHENTICATION_ATTRIBUTE);
+        assertEquals(principal, authentication.getPrincipal());
+    }
+
+    @Test
+    void missingTokenIsRejected() {
+        assertRejected(handshake());
+    }
+
+    @Test
+    void forgedTokenIsRejected() {
+        MockHttpServletRequest request = handshake();
+        request.addHeader("Authorization", "Bearer " + jwtTokenProvider.generateToken(principal) + "x");
+        assertRejected(request);
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+        MockHttpServletRequest request = handshake();
+        request.addHeader("Authorization", "Bearer " + jwtTokenProvider.generateToken(principal));
+        assertRejected(request);
+    }
+
+    private void assertRejected(MockHttpServletRequest request) {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+        Map<String, Object> attributes = new HashMap<>();
+
+        assertFalse(interceptor.beforeHandshake(new ServletServerHttpRequest(request), response, null, attributes));
+        response.flush();
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+        assertFalse(attributes.containsKey(JwtHandshakeInterceptor.AUTHENTICATION_ATTRIBUTE));
+    }
+
+    private static MockHttpServletRequest handshake() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws");
+        request.setServerName("localhost");
+        return request;
+    }
+}
@@ -0,0 +1,97 @@
+package com.publicvision.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.publicvision.entity.User;
+import com.publicvision.repository.RevokedTokenRepository;
+import com.publicvision.repository.UserTokenEpochRepository;
+import com.publicvision.service.InMemoryClusterEventBus;
+import com.publicvision.service.TokenRevocationService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+
+/**
+ * The claims cache skips signature verification for tokens seen before; a
+ * cached token must still stop working once it expires or is revoked.
+ */
+class JwtTokenProviderTest {
+
+    private static final long USER_ID = 42L;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenRevocationService tokenRevocationService;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "test-secret");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxSize", 100);
+        jwtTokenProvider.init();
+
+        tokenRevocationService = new TokenRevocationService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(tokenRevocationService, "revokedTokenRepository",
+                mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(tokenRevocationService, "userTokenEpochRepository",
+                mock(UserTokenEpochRepository.class));
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtTokenProvider", jwtTokenProvider);
+        ReflectionTestUtils.setField(tokenRevocationService, "clusterEventBus", new InMemoryClusterEventBus());
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.01);
+        tokenRevocationService.subscribeRevocations();
+
+        principal = new UserPrincipal(USER_ID, "citizen@example.com", "Citizen", User.Role.CITIZEN, "hash");
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 1000L);
+        String token = jwtTokenProvider.generateToken(principal);
+        Claims claims = jwtTokenProvider.parseToken(token);
+        assertSame(claims, jwtTokenProvider.parseToken(token));
+
+        // Expiry has second precision
+        Thread.sleep(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()) + 100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenProvider.parseToken(token));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceRevoked() {
+        String token = jwtTokenProvider.generateToken(principal);
+        Claims claims = jwtTokenProvider.parseToken(token);
+        assertFalse(tokenRevocationService.isRevoked(claims));
+
+        tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+
+        Claims cached = jwtTokenProvider.parseToken(token);
+        assertSame(claims, cached);
+        assertTrue(tokenRevocationService.isRevoked(cached));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceUserTokensAreRevoked() throws InterruptedException {
+        String token = jwtTokenProvider.generateToken(principal);
+        Claims claims = jwtTokenProvider.parseToken(token);
+        assertFalse(tokenRevocationService.isRevoked(claims));
+
+        // Tokens issued within the revoking second stay valid; move past it
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 10);
+        tokenRevocationService.revokeAllForUser(USER_ID);
+
+        Claims cached = jwtTokenProvider.parseToken(token);
+        assertSame(claims, cached);
+        assertTrue(tokenRevocationService.isRevoked(cached));
+    }
+}
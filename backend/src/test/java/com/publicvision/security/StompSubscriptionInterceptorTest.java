@@ -0,0 +1,89 @@
+package com.publicvision.security;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.Principal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.publicvision.entity.User;
+
+/**
+ * A session may only subscribe to its own user queues and to the role
+ * topics of roles it holds.
+ */
+class StompSubscriptionInterceptorTest {
+
+    private final StompSubscriptionInterceptor interceptor = new StompSubscriptionInterceptor();
+
+    private final Principal citizen = session(1L, "citizen@example.com", User.Role.CITIZEN);
+    private final Principal admin = session(2L, "admin@example.com", User.Role.ADMIN);
+
+    @Test
+    void ownUserQueuesAndPublicTopicAreAllowed() {
+        assertAllowed(citizen, "/user/queue/notifications");
+        assertAllowed(citizen, "/user/queue/complaints");
+        assertAllowed(citizen, "/topic/complaints");
+    }
+
+    @Test
+    void anotherUsersQueueIsRejected() {
+        assertRejected(citizen, "/user/admin@example.com/queue/notifications");
+        // The destination the broker resolves another session's /user/queue/notifications to
+        assertRejected(citizen, "/queue/notifications-userabc123");
+        assertRejected(citizen, "/queue/complaints");
+    }
+
+    @Test
+    void roleTopicRequiresTheRole() {
+        assertRejected(citizen, "/topic/role/ADMIN/complaints");
+        assertRejected(citizen, "/topic/role/STAFF/complaints");
+        assertAllowed(admin, "/topic/role/ADMIN/complaints");
+        assertRejected(admin, "/topic/role/STAFF/complaints");
+    }
+
+    @Test
+    void roleTopicWithoutAuthenticatedSessionIsRejected() {
+        assertRejected(null, "/topic/role/ADMIN/complaints");
+    }
+
+    @Test
+    void publishingToBrokerDestinationsIsRejected() {
+        Message<byte[]> send = message(StompCommand.SEND, admin, "/topic/role/ADMIN/complaints");
+        assertThrows(MessagingException.class, () -> interceptor.preSend(send, null));
+        Message<byte[]> sendToUser = message(StompCommand.SEND, admin, "/user/citizen@example.com/queue/notifications");
+        assertThrows(MessagingException.class, () -> interceptor.preSend(sendToUser, null));
+    }
+
+    private void assertAllowed(Principal user, String destination) {
+        Message<byte[]> message = message(StompCommand.SUBSCRIBE, user, destination);
+        assertSame(message, interceptor.preSend(message, null));
+    }
+
+    private void assertRejected(Principal user, String destination) {
+        Message<byte[]> message = message(StompCommand.SUBSCRIBE, user, destination);
+        assertThrows(MessagingException.class, () -> interceptor.preSend(message, null), destination);
+    }
+
+    private static Message<byte[]> message(StompCommand command, Principal user, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-1");
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal session(Long userId, String email, User.Role role) {
+        UserPrincipal principal = new UserPrincipal(userId, email, email, role, "hash");
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
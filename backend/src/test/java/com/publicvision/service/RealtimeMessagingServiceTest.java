@@ -0,0 +1,56 @@
+package com.publicvision.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.publicvision.dto.ComplaintDTO;
+import com.publicvision.entity.Complaint.ComplaintStatus;
+
+/**
+ * Fan-out cost of an event is a fixed number of broker sends, one per
+ * destination, however many sessions are subscribed; the broker copies
+ * each message to its subscribers.
+ */
+class RealtimeMessagingServiceTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        realtimeMessagingService = new RealtimeMessagingService();
+        ReflectionTestUtils.setField(realtimeMessagingService, "messagingTemplate", messagingTemplate);
+    }
+
+    @Test
+    void createdComplaintIsSentOncePerTopic() {
+        realtimeMessagingService.complaintCreated(new ComplaintDTO());
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/complaints"), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/role/ADMIN/complaints"), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/role/STAFF/complaints"), any(Object.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void statusChangeIsSentToTheOwnerAndOncePerStaffRole() {
+        realtimeMessagingService.complaintStatusChanged(new ComplaintDTO(), "citizen@example.com",
+                ComplaintStatus.SUBMITTED);
+
+        verify(messagingTemplate).convertAndSendToUser(eq("citizen@example.com"), eq("/queue/complaints"),
+                any(Object.class));
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+}
@@ -250,6 +250,20 @@ class API {
     
     // Log out the user
     logout() {
+        // Best-effort server-side revocation; the local session is cleared regardless
+        const token = localStorage.getItem('token');
+        if (token) {
+            fetch(`${this.baseUrl}${API_CONFIG.endpoints.auth.logout}`, {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json',
+                    'Authorization': `Bearer ${token}`
+                },
+                body: JSON.stringify({ refreshToken: localStorage.getItem('refreshToken') }),
+                keepalive: true
+            }).catch(() => {});
+        }
+
         localStorage.removeItem('token');
         localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
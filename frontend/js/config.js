@@ -9,7 +9,8 @@ const API_CONFIG = {
         auth: {
             login: '/auth/login',
             register: '/auth/register',
-            refreshToken: '/auth/refresh-token'
+            refreshToken: '/auth/refresh-token',
+            logout: '/auth/logout'
         },
         // User
         user: {
@@ -37,7 +38,9 @@ const API_CONFIG = {
         notifications: {
             list: '/notifications',
             markRead: (id) => `/notifications/${id}/read`,
-            markAllRead: '/notifications/read-all'
+            markAllRead: '/notifications/read-all',
+            markManyRead: '/notifications/read-bulk',
+            markReadBefore: '/notifications/read-before'
         },
         // Statistics
         statistics: {
@@ -688,7 +688,7 @@ function initDashboardCharts() {
         statusChart = new Chart(statusChartCanvas.getContext('2d'), {
             type: 'doughnut',
             data: {
-                labels: ['Pending', 'In Progress', 'Resolved', 'Rejected'],
+                labels: ['Pending', 'In Progress', 'Resolved', 'Escalated'],
                 datasets: [{
                     data: [0, 0, 0, 0],
                     backgroundColor: ['#ffc107', '#17a2b8', '#28a745', '#dc3545']
@@ -799,7 +799,7 @@ function updateDashboardCharts(stats) {
             stats.pendingComplaints || 0,
             stats.inProgressComplaints || 0,
             stats.resolvedComplaints || 0,
-            stats.rejectedComplaints || 0
+            stats.escalatedComplaints || 0
         ];
         statusChart.update();
     }
@@ -58,7 +58,7 @@ function updateRecentComplaints() {
     if (!recentComplaintsList) return;
     
     // Fetch recent complaints
-    fetch(`${API_CONFIG.baseUrl}/complaints/public/recent?page=0&size=5&timestamp=${new Date().getTime()}`, {
+    fetch(`${API_CONFIG.baseUrl}/complaints/public/recent?page=0&size=5`, {
         method: 'GET',
         headers: {
             'Content-Type': 'application/json',
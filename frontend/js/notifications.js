@@ -7,7 +7,8 @@ const notificationState = {
     notifications: [],
     unreadCount: 0,
     eventSource: null,
-    isConnected: false
+    isConnected: false,
+    lastEventId: null
 };
 
 // DOM Elements - will be initialized on page load
@@ -81,7 +82,7 @@ async function fetchUnreadCount() {
     if (!authApi.isAuthenticated()) return;
     
     try {
-        const response = await apiService.get('/api/notifications/unread/count');
+        const response = await apiService.get('/api/notifications/count');
         notificationState.unreadCount = response.data;
         updateNotificationBadge();
     } catch (error) {
@@ -148,25 +149,42 @@ function connectToSSE() {
         notificationState.eventSource.close();
     }
     
+    // Pass the last seen event id so the server replays only what was missed
     const baseUrl = apiService.getBaseUrl();
-    const newEventSource = new EventSource(`${baseUrl}/api/notifications/stream`);
+    const query = notificationState.lastEventId ? `?lastEventId=${encodeURIComponent(notificationState.lastEventId)}` : '';
+    const newEventSource = new EventSource(`${baseUrl}/api/notifications/stream${query}`);
     
-    newEventSource.onmessage = (event) => {
+    newEventSource.addEventListener('NOTIFICATION', (event) => {
         const data = JSON.parse(event.data);
+        // Ids can arrive out of order; resume after the highest one seen
+        if (event.lastEventId && Number(event.lastEventId) > Number(notificationState.lastEventId || 0)) {
+            notificationState.lastEventId = event.lastEventId;
+        }
+        
+        // A notification can arrive both live and replayed after a reconnect
+        if (notificationState.notifications.some(n => n.id === data.id)) return;
         
         // Add new notification to the top of the list
         notificationState.notifications.unshift(data);
         
-        // Increment unread count
-        notificationState.unreadCount++;
-        
-        // Update UI
-        updateNotificationBadge();
+        // Update UI (the unread count arrives as its own UNREAD_COUNT event)
         updateNotificationList();
         
         // Show notification toast
         showNotificationToast(data);
-    };
+    });
+    
+    // Too much was missed to replay; reload the list instead
+    newEventSource.addEventListener('RESYNC', () => {
+        fetchNotifications();
+    });
+    
+    // The server pushes the unread count whenever it changes, so no polling is needed
+    newEventSource.addEventListener('UNREAD_COUNT', (event) => {
+        notificationState.unreadCount = JSON.parse(event.data);
+        updateNotificationBadge();
+        updateNotificationList();
+    });
     
     newEventSource.onerror = (error) => {
         console.error('SSE connection error:', error);
@@ -339,6 +357,8 @@ function getNotificationTitle(type) {
             return 'New Comment';
         case 'ASSIGNMENT':
             return 'Assignment';
+        case 'ESCALATION':
+            return 'Escalation';
         default:
             return 'Notification';
     }
@@ -14,6 +14,11 @@ document.addEventListener('DOMContentLoaded', function() {
         // Listen for real-time complaint updates that might affect statistics
         document.addEventListener('complaint-update', handleComplaintUpdateEffect);
     }
+
+    // Live counters are pushed by the server instead of polled
+    if (authApi.isAuthenticated()) {
+        connectStatisticsStream();
+    }
     
     // Add refresh button to statistics filters
     const filtersContainer = document.querySelector('.stats-filters');
@@ -62,37 +67,99 @@ function handleRealTimeStatisticsUpdate(event) {
 }
 
 /**
- * Handle complaint updates that might affect statistics
+ * Handle complaint updates that might affect statistics.
+ * Counters arrive through the statistics stream, so nothing is re-fetched here.
  * @param {Event} event Custom event with complaint data
  */
 function handleComplaintUpdateEffect(event) {
-    const complaint = event.detail;
-    
-    console.log('Complaint update affecting statistics:', complaint);
-    
-    // Request updated statistics data
-    fetch(`${API_CONFIG.baseUrl}/statistics?timestamp=${new Date().getTime()}`, {
-        method: 'GET',
-        headers: {
-            'Content-Type': 'application/json',
-            ...(authApi.isAuthenticated() ? { 'Authorization': `Bearer ${localStorage.getItem('token')}` } : {})
+    console.log('Complaint update affecting statistics:', event.detail);
+}
+
+/**
+ * Subscribe to the server-side statistics stream.
+ * The server sends a SNAPSHOT on connect and coalesced DELTA events afterwards.
+ */
+function connectStatisticsStream() {
+    let current = null;
+    let lastSequence = 0;
+
+    const applyStatistics = (statistics) => {
+        if (typeof updateAllCharts === 'function') {
+            updateAllCharts(statistics);
         }
-    })
-    .then(response => {
-        if (!response.ok) {
-            throw new Error('Failed to refresh statistics');
+        if (typeof updateSummaryNumbers === 'function') {
+            updateSummaryNumbers(statistics);
         }
-        return response.json();
+    };
+
+    const mergeCounts = (target, delta) => {
+        Object.entries(delta || {}).forEach(([key, value]) => {
+            target[key] = (target[key] || 0) + value;
+        });
+    };
+
+    const handleEvent = (name, data) => {
+        if (name === 'SNAPSHOT') {
+            current = data;
+            lastSequence = 0;
+            applyStatistics(current);
+        } else if (name === 'DELTA' && current) {
+            if (lastSequence && data.sequence !== lastSequence + 1) {
+                console.warn('Statistics stream: missed delta, waiting for next snapshot');
+            }
+            lastSequence = data.sequence;
+            current.totalComplaints = (current.totalComplaints || 0) + data.totalComplaints;
+            current.complaintsByStatus = current.complaintsByStatus || {};
+            current.complaintsByCategory = current.complaintsByCategory || {};
+            mergeCounts(current.complaintsByStatus, data.complaintsByStatus);
+            mergeCounts(current.complaintsByCategory, data.complaintsByCategory);
+            applyStatistics(current);
+        }
+    };
+
+    // EventSource cannot send the Authorization header, so read the stream with fetch
+    fetch(`${API_CONFIG.baseUrl}/complaints/statistics/stream`, {
+        headers: { 'Authorization': `Bearer ${localStorage.getItem('token')}` }
     })
-    .then(data => {
-        // Update charts with fresh data
-        updateAllCharts(data);
-        
-        // Update summary numbers
-        updateSummaryNumbers(data);
+    .then(async response => {
+        if (!response.ok || !response.body) {
+            throw new Error('Failed to open statistics stream');
+        }
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) {
+                break;
+            }
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+                const chunk = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+
+                let name = 'message';
+                let data = '';
+                chunk.split('\n').forEach(line => {
+                    if (line.startsWith('event:')) {
+                        name = line.slice(6).trim();
+                    } else if (line.startsWith('data:')) {
+                        data += line.slice(5);
+                    }
+                });
+                if (data) {
+                    handleEvent(name, JSON.parse(data));
+                }
+            }
+        }
+        throw new Error('Statistics stream closed');
     })
     .catch(error => {
-        console.error('Error refreshing statistics:', error);
+        console.warn('Statistics stream disconnected, retrying in 5s:', error.message);
+        setTimeout(connectStatisticsStream, 5000);
     });
 }
 
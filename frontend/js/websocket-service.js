@@ -54,14 +54,18 @@ class WebSocketService {
         this.reconnectAttempts = 0;
         console.log('WebSocket: Connected successfully');
         
-        // Subscribe to complaint updates
-        this.subscribe('/topic/complaints', this.handleComplaintUpdate.bind(this));
-        
-        // Subscribe to system notifications
-        this.subscribe('/topic/notifications', this.handleNotification.bind(this));
+        // Staff and admins get every complaint event on their role topic;
+        // citizens get new complaints publicly and changes to their own privately
+        const user = JSON.parse(localStorage.getItem('user') || '{}');
+        if (user.role === 'ADMIN' || user.role === 'STAFF') {
+            this.subscribe(`/topic/role/${user.role}/complaints`, this.handleComplaintUpdate.bind(this));
+        } else {
+            this.subscribe('/topic/complaints', this.handleComplaintUpdate.bind(this));
+            this.subscribe('/user/queue/complaints', this.handleComplaintUpdate.bind(this));
+        }
         
-        // Subscribe to statistics updates
-        this.subscribe('/topic/statistics', this.handleStatisticsUpdate.bind(this));
+        // Subscribe to the user's own notifications
+        this.subscribe('/user/queue/notifications', this.handleNotification.bind(this));
         
         // Broadcast connection event
         const event = new CustomEvent('websocket-connected');
@@ -170,12 +174,12 @@ class WebSocketService {
     handleComplaintUpdate(data) {
         console.log('WebSocket: Received complaint update', data);
         
+        // Complaint events wrap the complaint together with the event type
+        const complaint = data && data.complaint ? data.complaint : data;
+        
         // Dispatch custom event with the updated complaint data
-        const event = new CustomEvent('complaint-update', { detail: data });
+        const event = new CustomEvent('complaint-update', { detail: complaint });
         document.dispatchEvent(event);
-        
-        // Also update notification badge if needed
-        this.updateNotificationBadge();
     }
     
     /**
@@ -189,8 +193,7 @@ class WebSocketService {
         const event = new CustomEvent('new-notification', { detail: data });
         document.dispatchEvent(event);
         
-        // Update notification badge
-        this.updateNotificationBadge();
+        // The badge is updated from the UNREAD_COUNT events of the notification stream
         
         // Show toast notification
         if (typeof showToast === 'function') {
@@ -209,30 +212,6 @@ class WebSocketService {
         const event = new CustomEvent('statistics-update', { detail: data });
         document.dispatchEvent(event);
     }
-    
-    /**
-     * Update notification badge count
-     */
-    updateNotificationBadge() {
-        // Count unread notifications
-        apiService.get('/api/notifications/unread-count')
-            .then(response => {
-                const count = response.count || 0;
-                const badge = document.getElementById('notificationBadge');
-                
-                if (badge) {
-                    if (count > 0) {
-                        badge.textContent = count > 99 ? '99+' : count;
-                        badge.style.display = 'flex';
-                    } else {
-                        badge.style.display = 'none';
-                    }
-                }
-            })
-            .catch(error => {
-                console.error('Error updating notification badge:', error);
-            });
-    }
 }
 
 // Create a singleton instance
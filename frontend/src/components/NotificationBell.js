@@ -46,6 +46,8 @@ const NotificationBell = () => {
         return '#2196f3'; // Blue
       case 'ASSIGNMENT':
         return '#ff9800'; // Orange
+      case 'ESCALATION':
+        return '#f44336'; // Red
       default:
         return '#9e9e9e'; // Grey
     }